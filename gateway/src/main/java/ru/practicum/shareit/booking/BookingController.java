@@ -13,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.UnsupportedStatusException;
@@ -33,54 +35,64 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUserBookings(@RequestHeader(REQUEST_HEADER) Long bookerId,
-                                              @RequestParam(defaultValue = "ALL") String state,
-                                              @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                              @RequestParam(defaultValue = "10") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> getUserBookings(@RequestHeader(REQUEST_HEADER) Long bookerId,
+                                                    @RequestParam(defaultValue = "ALL") String state,
+                                                    @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                    @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                    @RequestParam(required = false) String cursor) {
 
         BookingState bookingState = BookingState.toState(state).orElseThrow(
                 () -> new UnsupportedStatusException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: /bookings на получение информации о бронирование" +
                 " пользователя с id = {}", bookerId);
-        return bookingClient.getUserBookings(bookerId, bookingState, from, size);
+        return bookingClient.getUserBookings(bookerId, bookingState, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(@RequestHeader(REQUEST_HEADER) Long ownerId,
-                                                     @RequestParam(defaultValue = "ALL") String state,
-                                                     @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                     @RequestParam(defaultValue = "20") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> getOwnerBookings(@RequestHeader(REQUEST_HEADER) Long ownerId,
+                                                           @RequestParam(defaultValue = "ALL") String state,
+                                                           @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                           @RequestParam(defaultValue = "20") @Positive Integer size,
+                                                           @RequestParam(required = false) String cursor) {
 
         BookingState bookingState = BookingState.toState(state).orElseThrow(
                 () -> new UnsupportedStatusException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: /bookings/owner на получение информации о бронирование" +
                 " собственника с id = {}", ownerId);
-        return bookingClient.getOwnerBookings(ownerId, bookingState, from, size);
+        return bookingClient.getOwnerBookings(ownerId, bookingState, from, size, cursor);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader(REQUEST_HEADER) Long bookerId,
-                                           @RequestBody @Valid BookingRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> addBooking(@RequestHeader(REQUEST_HEADER) Long bookerId,
+                                                 @RequestBody @Valid BookingRequestDto requestDto) {
         log.info("Получен POST-запрос к эндпоинту: /bookings на бронирование вещи " +
                 "пользователем с id = {} .", bookerId);
         return bookingClient.addBooking(requestDto, bookerId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(REQUEST_HEADER) Long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(REQUEST_HEADER) Long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Получен GET-запрос к эндпоинту: /bookings/{bookingId} на получение информации " +
                 "о бронировании вещи пользователем с id = {} .", userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader(value = REQUEST_HEADER) Long ownerId,
-                                                 @PathVariable Long bookingId,
-                                                 @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(@RequestHeader(value = REQUEST_HEADER) Long ownerId,
+                                                       @PathVariable Long bookingId,
+                                                       @RequestParam Boolean approved) {
         log.info("Получен PATCH-запрос к эндпоинту: /bookings/{bookingId}?approved={approved} с ответом " +
                 "на потверждение бронирования вещи владельцем.");
         return bookingClient.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/approve")
+    public Mono<ResponseEntity<Object>> approveBookings(@RequestHeader(REQUEST_HEADER) Long ownerId,
+                                                        @RequestBody @Valid BookingApprovalRequestDto approvalDto) {
+        log.info("Получен PATCH-запрос к эндпоинту: /bookings/approve с ответом владельца с id = {} " +
+                "на {} бронирований.", ownerId, approvalDto.getBookingIds().size());
+        return bookingClient.approveBookings(ownerId, approvalDto);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingApprovalRequestDto {
+    @NotEmpty(message = "Список бронирований не может быть пустым")
+    @Size(max = 500, message = "За один запрос можно обработать не более 500 бронирований")
+    List<@NotNull Long> bookingIds;
+
+    @NotNull(message = "Решение по бронированиям должно быть указано")
+    Boolean approved;
+}
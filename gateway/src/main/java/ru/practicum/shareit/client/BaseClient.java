@@ -1,97 +1,170 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public abstract class BaseClient {
+    // заголовки соединения между шлюзом и сервером; Content-Length сервлет выставит по длине тела
+    private static final Set<String> NOT_FORWARDED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(), "keep-alive", HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.TE.toLowerCase(), HttpHeaders.TRAILER.toLowerCase(), HttpHeaders.UPGRADE.toLowerCase(),
+            HttpHeaders.PROXY_AUTHENTICATE.toLowerCase(), HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
     protected final RestTemplate rest;
+    // null - блокирующий режим: запрос к серверу выполняется RestTemplate на потоке Tomcat
+    @Nullable
+    protected final WebClient webClient;
+    // RestTemplate без буферизации тела запроса для postStream; остальные запросы идут через rest
+    // с буферизацией: с Content-Length, без chunked и с возможностью повтора
+    private final RestTemplate streamingRest;
+
+    // тело ответа сервера отдаётся клиенту байтами, без разбора в дерево объектов и повторной сериализации
+    @Value("${shareit-server.passthrough:true}")
+    private boolean passthrough;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient) {
+        this(rest, rest, webClient);
+    }
+
+    public BaseClient(RestTemplate rest, RestTemplate streamingRest, @Nullable WebClient webClient) {
         this.rest = rest;
+        this.streamingRest = streamingRest;
+        this.webClient = webClient;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    // тело копируется на сервер по мере чтения, если streamingRest создан с фабрикой setBufferRequestBody(false).
+    // Блокирующий в обоих режимах: тело читается из InputStream сервлета
+    protected Mono<ResponseEntity<Object>> postStream(String path, long userId, MediaType contentType, InputStream body) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setContentType(contentType);
+        ResponseEntity<?> shareitServerResponse;
+        try {
+            shareitServerResponse = streamingRest.execute(path, HttpMethod.POST, request -> {
+                request.getHeaders().putAll(headers);
+                StreamUtils.copy(body, request.getBody());
+            }, rest.responseEntityExtractor(responseType()));
+        } catch (HttpStatusCodeException e) {
+            return Mono.just(prepareErrorResponse(e));
+        }
+        return Mono.just(prepareGatewayResponse(shareitServerResponse));
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        if (webClient != null) {
+            return exchangeReactive(webClient, method, path, userId, parameters, body);
+        }
+        // ответ уже получен: контроллер отдаёт его без переключения потоков
+        return Mono.just(exchangeBlocking(method, path, userId, parameters, body));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchangeReactive(WebClient client, HttpMethod method, String path,
+                                                             Long userId, @Nullable Map<String, Object> parameters,
+                                                             @Nullable T body) {
+        WebClient.RequestBodySpec request = parameters != null
+                ? client.method(method).uri(path, parameters)
+                : client.method(method).uri(path);
+        request.headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+        // статусы ошибок не превращаются в исключения: они отдаются клиенту так же, как в блокирующем режиме
+        return requestWithBody.exchangeToMono(response -> passthrough || response.statusCode().isError()
+                ? response.toEntity(byte[].class).map(this::prepareGatewayResponse)
+                : response.toEntity(Object.class).map(this::prepareGatewayResponse));
+    }
+
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, String path, Long userId,
+                                                        @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<?> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, responseType(), parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, responseType());
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareErrorResponse(e);
         }
         return prepareGatewayResponse(shareitServerResponse);
     }
@@ -106,9 +179,27 @@ public abstract class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    private Class<?> responseType() {
+        return passthrough ? byte[].class : Object.class;
+    }
+
+    private ResponseEntity<Object> prepareErrorResponse(HttpStatusCodeException e) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(e.getStatusCode());
+        if (passthrough && e.getResponseHeaders() != null) {
+            responseBuilder.headers(forwardedHeaders(e.getResponseHeaders()));
+        }
+        return responseBuilder.body(e.getResponseBodyAsByteArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<?> response) {
+        if (passthrough) {
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(forwardedHeaders(response.getHeaders()))
+                    .body(response.getBody());
+        }
         if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+            return (ResponseEntity<Object>) response;
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
@@ -119,4 +210,14 @@ public abstract class BaseClient {
 
         return responseBuilder.build();
     }
+
+    private static HttpHeaders forwardedHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!NOT_FORWARDED_HEADERS.contains(name.toLowerCase())) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
 }
\ No newline at end of file
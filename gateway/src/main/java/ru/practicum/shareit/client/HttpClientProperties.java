@@ -0,0 +1,34 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+@Getter
+@Setter
+public class HttpClientProperties {
+    // BLOCKING - RestTemplate на потоке Tomcat, REACTIVE - WebClient на Reactor Netty, поток Tomcat не ждёт сервер
+    private Mode mode = Mode.BLOCKING;
+    // все клиенты ходят на один сервер, поэтому лимит на маршрут почти равен общему
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    // сколько запрос ждёт свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    // если сервер не прислал Keep-Alive, соединение переиспользуется не дольше этого времени
+    private Duration keepAlive = Duration.ofSeconds(30);
+    // простаивающие соединения закрываются фоновым потоком, не дожидаясь закрытия со стороны сервера
+    private Duration maxIdleTime = Duration.ofSeconds(20);
+    // соединение, простоявшее дольше, проверяется перед выдачей из пула
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    // в режиме REACTIVE: сколько запросов может ждать соединения сверх max-total, остальные сразу получают ошибку
+    private int maxPendingAcquires = 1000;
+
+    public enum Mode {
+        BLOCKING, REACTIVE
+    }
+}
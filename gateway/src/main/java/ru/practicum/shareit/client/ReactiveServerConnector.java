@@ -0,0 +1,64 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Пул соединений Reactor Netty с сервером, общий для клиентов шлюза в режиме
+ * {@code shareit-server.http-client.mode=reactive}. Число одновременных запросов к серверу ограничено
+ * {@code max-total}, очередь за соединением - {@code max-pending-acquires}.
+ */
+public class ReactiveServerConnector implements DisposableBean {
+    private final WebClient.Builder webClientBuilder;
+    @Nullable
+    private final ConnectionProvider connectionProvider;
+    @Nullable
+    private final ReactorClientHttpConnector connector;
+
+    public ReactiveServerConnector(WebClient.Builder webClientBuilder, HttpClientProperties properties) {
+        this.webClientBuilder = webClientBuilder;
+        if (properties.getMode() != HttpClientProperties.Mode.REACTIVE) {
+            connectionProvider = null;
+            connector = null;
+            return;
+        }
+        connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireMaxCount(properties.getMaxPendingAcquires())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getKeepAlive())
+                .evictInBackground(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        connector = new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout()));
+    }
+
+    /**
+     * WebClient с базовым адресом {@code baseUrl} или null, если шлюз работает в блокирующем режиме.
+     */
+    @Nullable
+    public WebClient webClient(String baseUrl) {
+        if (connector == null) {
+            return null;
+        }
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(connector)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+}
@@ -1,45 +1,79 @@
 package ru.practicum.shareit.item;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ReactiveServerConnector;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final ItemSearchCache searchCache;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient serverHttpClient, ReactiveServerConnector reactiveServerConnector,
+                      ItemSearchCache searchCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(() -> {
+                            HttpComponentsClientHttpRequestFactory factory =
+                                    new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+                            // POST /items/batch передаёт тело на сервер потоком, не накапливая его в памяти шлюза
+                            factory.setBufferRequestBody(false);
+                            return factory;
+                        })
+                        .build(),
+                reactiveServerConnector.webClient(serverUrl + API_PREFIX)
         );
+        this.searchCache = searchCache;
+    }
+
+    public Mono<ResponseEntity<Object>> saveItem(long userId, ItemDto itemDto) {
+        return post("", userId, itemDto).doOnNext(searchCache::invalidateAllOnSuccess);
     }
 
-    public ResponseEntity<Object> saveItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> saveItems(long userId, MediaType contentType, InputStream body) {
+        return postStream("/batch", userId, contentType, body).doOnNext(searchCache::invalidateAllOnSuccess);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto).doOnNext(searchCache::invalidateAllOnSuccess);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getOwnerItems(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getOwnerItems(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -47,20 +81,21 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId) {
-        return delete("/" + itemId);
+    public Mono<ResponseEntity<Object>> deleteItem(long itemId) {
+        return delete("/" + itemId).doOnNext(searchCache::invalidateAllOnSuccess);
     }
 
-    public ResponseEntity<Object> searchItems(String query, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItems(String query, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", query,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return searchCache.get(query, from, size,
+                () -> get("/search?text={text}&from={from}&size={size}", null, parameters));
     }
 
-    public ResponseEntity<Object> addComment(CommentDto commentDto, long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> addComment(CommentDto commentDto, long itemId, long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Ответы сервера на GET /items/search по ключу (text, from, size): запрос без пользователя, поэтому ответ
+ * одинаков для всех. Одновременные промахи по одному ключу ждут один запрос к серверу. Устаревание ограничено
+ * TTL, а изменения вещей, прошедшие через шлюз, сбрасывают кэш сразу.
+ * Метрики - {@code cache.gets{result=hit|miss}}, {@code cache.evictions}, {@code cache.size} с тегом cache=itemSearch.
+ */
+@Component
+public class ItemSearchCache {
+    private final boolean enabled;
+    private final AsyncCache<Key, ResponseEntity<Object>> cache;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.search.cache.enabled:true}") boolean enabled,
+                           @Value("${shareit.search.cache.max-size:10000}") long maxSize,
+                           @Value("${shareit.search.cache.ttl:10s}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "itemSearch");
+        }
+    }
+
+    public Mono<ResponseEntity<Object>> get(String text, int from, int size,
+                                            Supplier<Mono<ResponseEntity<Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(text, from, size);
+        CompletableFuture<ResponseEntity<Object>> created = new CompletableFuture<>();
+        // функция только кладёт будущий ответ: запрос к серверу идёт вне блокировки внутри кэша
+        CompletableFuture<ResponseEntity<Object>> cached = cache.get(key, (k, executor) -> created);
+        if (cached == created) {
+            load(key, created, loader);
+        }
+        // копия: отмена одного запроса клиента не отменяет ответ, которого ждут остальные
+        return Mono.fromFuture(cached.copy());
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    // поиск видит только доступные вещи: любое успешное изменение вещей, в том числе каскадное удаление
+    // вещей вместе с владельцем, может изменить его результат
+    public void invalidateAllOnSuccess(ResponseEntity<?> writeResponse) {
+        if (writeResponse.getStatusCode().is2xxSuccessful()) {
+            invalidateAll();
+        }
+    }
+
+    // ошибки сервера не кэшируются; исключение удаляет ключ само. Пустой ответ тоже не кэшируется:
+    // ожидающие его запросы завершаются без значения, а не ждут вечно
+    private void load(Key key, CompletableFuture<ResponseEntity<Object>> created,
+                      Supplier<Mono<ResponseEntity<Object>>> loader) {
+        try {
+            loader.get().subscribe(response -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    cache.asMap().remove(key, created);
+                }
+                created.complete(response);
+            }, created::completeExceptionally, () -> {
+                if (!created.isDone()) {
+                    cache.asMap().remove(key, created);
+                    created.complete(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class Key {
+        private final String text;
+        private final int from;
+        private final int size;
+    }
+}
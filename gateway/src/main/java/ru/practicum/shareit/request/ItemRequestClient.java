@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -7,7 +8,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ReactiveServerConnector;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 
 import java.util.Map;
@@ -17,32 +20,41 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             HttpClient serverHttpClient, ReactiveServerConnector reactiveServerConnector) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                reactiveServerConnector.webClient(serverUrl + API_PREFIX)
         );
     }
 
-    public ResponseEntity<Object> addItemRequest(long userId, ItemRequestShortDto requestDto) {
+    public Mono<ResponseEntity<Object>> addItemRequest(long userId, ItemRequestShortDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getOwnerRequests(long userId) {
+    public Mono<ResponseEntity<Object>> getOwnerRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllRequests(long userId, int from, int size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("/all?size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/all", userId, parameters);
+        return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(long requestId, long userId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long requestId, long userId) {
         return get("/" + requestId, userId);
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 
 import javax.validation.Valid;
@@ -30,32 +31,33 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> addItemRequest(@RequestHeader(REQUEST_HEADER) Long userId,
-                                                    @RequestBody @Valid ItemRequestShortDto dto) {
+    public Mono<ResponseEntity<Object>> addItemRequest(@RequestHeader(REQUEST_HEADER) Long userId,
+                                                          @RequestBody @Valid ItemRequestShortDto dto) {
         log.info("Получен POST-запрос  к эндпоинту: /requests на добавление вещи по запросу - {}" +
                 " пользователем с id = {} .", dto, userId);
         return requestClient.addItemRequest(userId, dto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getOwnerRequests(@RequestHeader(REQUEST_HEADER) Long ownerId) {
+    public Mono<ResponseEntity<Object>> getOwnerRequests(@RequestHeader(REQUEST_HEADER) Long ownerId) {
         log.info("Получен GET-запрос к эндпоинту: /requests на получение списка запросов на добавление вещей" +
                 "пользователем с id = {} .", ownerId);
         return requestClient.getOwnerRequests(ownerId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(REQUEST_HEADER) Long userId,
-                                                               @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                                               @RequestParam(name = "size", defaultValue = "20") @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> getAllRequests(@RequestHeader(REQUEST_HEADER) Long userId,
+                                                                     @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                                     @RequestParam(name = "size", defaultValue = "20") @Positive Integer size,
+                                                                     @RequestParam(required = false) String cursor) {
         log.info("Получен GET-запрос к эндпоинту: /requests/all/ на получение списка всех запросов на добавление вещей" +
                 "пользователем с id = {} .", userId);
-        return requestClient.getAllRequests(userId, from, size);
+        return requestClient.getAllRequests(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader(REQUEST_HEADER) Long userId,
-                                                 @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(REQUEST_HEADER) Long userId,
+                                                       @PathVariable Long requestId) {
         log.info("Получен GET-запрос к эндпоинту: /requests/{requestId} на получение запроса на добавление вещи" +
                 "с id = {} .", requestId);
         return requestClient.getRequestById(requestId, userId);
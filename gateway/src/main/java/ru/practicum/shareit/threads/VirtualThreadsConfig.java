@@ -0,0 +1,29 @@
+package ru.practicum.shareit.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * То же свойство {@code shareit.threads.virtual=true}, что и на сервере: запросы Tomcat шлюза обрабатываются
+ * в виртуальных потоках. Нужна Java 21, метод фабрики ищется через отражение, т.к. модуль собирается под Java 11.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() throws Exception {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("shareit.threads.virtual=true требует Java 21.", e);
+        }
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -7,40 +8,50 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ReactiveServerConnector;
+import ru.practicum.shareit.item.ItemSearchCache;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
+    private final ItemSearchCache searchCache;
+
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient serverHttpClient, ReactiveServerConnector reactiveServerConnector,
+                      ItemSearchCache searchCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                        .build(),
+                reactiveServerConnector.webClient(serverUrl + API_PREFIX)
         );
+        this.searchCache = searchCache;
     }
 
-    public ResponseEntity<Object> createUser(UserDto dto) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto dto) {
         return post("", dto);
     }
 
-    public ResponseEntity<Object> patchUser(UserDto dto, long userId) {
+    public Mono<ResponseEntity<Object>> patchUser(UserDto dto, long userId) {
         return patch("/" + userId, dto);
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> deleteUserById(long userId) {
-        return delete("/" + userId);
+    // сервер удаляет вещи пользователя каскадом
+    public Mono<ResponseEntity<Object>> deleteUserById(long userId) {
+        return delete("/" + userId).doOnNext(searchCache::invalidateAllOnSuccess);
     }
 }
\ No newline at end of file
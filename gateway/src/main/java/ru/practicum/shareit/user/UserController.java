@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -27,32 +28,32 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserDto dto) {
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Valid UserDto dto) {
         log.info("Создание нового пользователя");
         return userClient.createUser(dto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> patchUser(@Positive @PathVariable long userId,
-                                            @RequestBody UserDto dto) {
+    public Mono<ResponseEntity<Object>> patchUser(@Positive @PathVariable long userId,
+                                                  @RequestBody UserDto dto) {
         log.info("Обновление пользователя с id {}", userId);
         return userClient.patchUser(dto, userId);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUser(@Positive @PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> getUser(@Positive @PathVariable long userId) {
         log.info("Получение пользователя id = {}", userId);
         return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         log.info("Получние списка всех пользователей");
         return userClient.getAllUsers();
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@Positive @PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(@Positive @PathVariable long userId) {
         log.info("Удаление пользователя с id = {}", userId);
         return userClient.deleteUserById(userId);
     }
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+class BaseClientTest {
+    private static final String SERVER_URL = "http://shareit-server/items";
+    private static final String BODY = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final String ERROR_BODY = "{\"error\":\"Вещь с id = 1 не найдена.\"}";
+
+    enum Mode {
+        BLOCKING, REACTIVE
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    @DisplayName("Статус, заголовки и тело ответа сервера отдаются клиенту как есть, кроме заголовков соединения")
+    void get_whenOk_thenStatusHeadersAndBodyPassedThrough(Mode mode) {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+        serverHeaders.set("X-Next-Cursor", "abc");
+        serverHeaders.set(HttpHeaders.CONNECTION, "keep-alive");
+        serverHeaders.set("Keep-Alive", "timeout=60");
+        serverHeaders.setContentLength(BODY.getBytes(StandardCharsets.UTF_8).length);
+
+        ResponseEntity<Object> response = client(mode, HttpStatus.OK, serverHeaders, BODY).getItem(1L).block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("abc", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertFalse(response.getHeaders().containsKey("Keep-Alive"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), assertInstanceOf(byte[].class, response.getBody()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {400, 404, 409, 500})
+    @DisplayName("Статус ошибки и тело ответа сервера одинаковы в блокирующем и реактивном режиме")
+    void get_whenErrorStatus_thenSameResponseInBothModes(int status) {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<Object> blocking = client(Mode.BLOCKING, HttpStatus.valueOf(status), serverHeaders, ERROR_BODY)
+                .getItem(1L).block();
+        ResponseEntity<Object> reactive = client(Mode.REACTIVE, HttpStatus.valueOf(status), serverHeaders, ERROR_BODY)
+                .getItem(1L).block();
+
+        assertNotNull(blocking);
+        assertNotNull(reactive);
+        assertEquals(HttpStatus.valueOf(status), blocking.getStatusCode());
+        assertEquals(blocking.getStatusCode(), reactive.getStatusCode());
+        assertEquals(blocking.getHeaders(), reactive.getHeaders());
+        assertArrayEquals(ERROR_BODY.getBytes(StandardCharsets.UTF_8),
+                assertInstanceOf(byte[].class, blocking.getBody()));
+        assertArrayEquals((byte[]) blocking.getBody(), assertInstanceOf(byte[].class, reactive.getBody()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    @DisplayName("Запрос к серверу содержит X-Sharer-User-Id")
+    void get_thenUserIdHeaderSent(Mode mode) {
+        AtomicReference<ClientRequest> sent = new AtomicReference<>();
+        TestClient client;
+        if (mode == Mode.BLOCKING) {
+            RestTemplate rest = restTemplate();
+            MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+            server.expect(requestTo(SERVER_URL + "/1"))
+                    .andExpect(method(HttpMethod.GET))
+                    .andExpect(header("X-Sharer-User-Id", "7"))
+                    .andRespond(withStatus(HttpStatus.OK));
+            client = new TestClient(rest, null);
+            client.getItem(7L).block();
+            server.verify();
+        } else {
+            client = new TestClient(restTemplate(), WebClient.builder()
+                    .baseUrl(SERVER_URL)
+                    .exchangeFunction(request -> {
+                        sent.set(request);
+                        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                    })
+                    .build());
+            client.getItem(7L).block();
+            assertEquals(HttpMethod.GET, sent.get().method());
+            assertEquals(SERVER_URL + "/1", sent.get().url().toString());
+            assertEquals("7", sent.get().headers().getFirst("X-Sharer-User-Id"));
+        }
+    }
+
+    private static TestClient client(Mode mode, HttpStatus status, HttpHeaders headers, String body) {
+        TestClient client;
+        if (mode == Mode.BLOCKING) {
+            RestTemplate rest = restTemplate();
+            MockRestServiceServer.bindTo(rest).build()
+                    .expect(requestTo(SERVER_URL + "/1"))
+                    .andRespond(withStatus(status).headers(headers).body(body));
+            client = new TestClient(rest, null);
+        } else {
+            client = new TestClient(restTemplate(), WebClient.builder()
+                    .baseUrl(SERVER_URL)
+                    .exchangeFunction(request -> Mono.just(ClientResponse.create(status)
+                            .headers(h -> h.addAll(headers))
+                            .body(body)
+                            .build()))
+                    .build());
+        }
+        // в приложении значение по умолчанию задаёт @Value
+        ReflectionTestUtils.setField(client, "passthrough", true);
+        return client;
+    }
+
+    private static RestTemplate restTemplate() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        return rest;
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, WebClient webClient) {
+            super(rest, webClient);
+        }
+
+        Mono<ResponseEntity<Object>> getItem(long userId) {
+            return get("/1", userId);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveServerConnector;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemClientTest {
+    private static final String SERVER_URL = "http://shareit-server";
+
+    private CloseableHttpClient httpClient;
+    private ItemClient itemClient;
+    private AtomicInteger searchCalls;
+    private HttpStatus writeStatus;
+
+    @BeforeEach
+    void setUp() {
+        searchCalls = new AtomicInteger();
+        writeStatus = HttpStatus.OK;
+        // сервер: поиск считает обращения, запись отвечает writeStatus
+        WebClient webClient = WebClient.builder()
+                .baseUrl(SERVER_URL + "/items")
+                .exchangeFunction(request -> {
+                    if (request.url().getPath().equals("/items/search")) {
+                        searchCalls.incrementAndGet();
+                        return Mono.just(json(HttpStatus.OK, "[]"));
+                    }
+                    if (request.method() == HttpMethod.GET) {
+                        return Mono.just(json(HttpStatus.OK, "{}"));
+                    }
+                    return Mono.just(json(writeStatus, "{}"));
+                })
+                .build();
+        ReactiveServerConnector connector = mock(ReactiveServerConnector.class);
+        when(connector.webClient(anyString())).thenReturn(webClient);
+        httpClient = HttpClients.createDefault();
+        ItemSearchCache searchCache = new ItemSearchCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+        itemClient = new ItemClient(SERVER_URL, new RestTemplateBuilder(), httpClient, connector, searchCache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+    }
+
+    @Test
+    @DisplayName("Успешные изменения вещей сбрасывают кэш поиска")
+    void write_whenSuccessful_thenSearchCacheInvalidated() {
+        search();
+        search();
+        assertEquals(1, searchCalls.get());
+
+        itemClient.saveItem(1L, item()).block();
+        search();
+        assertEquals(2, searchCalls.get());
+
+        itemClient.updateItem(1L, 1L, item()).block();
+        search();
+        assertEquals(3, searchCalls.get());
+
+        itemClient.deleteItem(1L).block();
+        search();
+        assertEquals(4, searchCalls.get());
+    }
+
+    @Test
+    @DisplayName("Неуспешные изменения вещей кэш поиска не сбрасывают")
+    void write_whenErrorStatus_thenSearchCacheKept() {
+        search();
+        writeStatus = HttpStatus.NOT_FOUND;
+
+        itemClient.saveItem(1L, item()).block();
+        itemClient.updateItem(1L, 1L, item()).block();
+        itemClient.deleteItem(1L).block();
+        search();
+
+        assertEquals(1, searchCalls.get());
+    }
+
+    @Test
+    @DisplayName("Чтение вещи кэш поиска не сбрасывает")
+    void getItemById_thenSearchCacheKept() {
+        search();
+
+        itemClient.getItemById(1L, 1L).block();
+        search();
+
+        assertEquals(1, searchCalls.get());
+    }
+
+    private void search() {
+        assertEquals(HttpStatus.OK, itemClient.searchItems("дрель", 0, 20).block().getStatusCode());
+    }
+
+    private static ItemDto item() {
+        return ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build();
+    }
+
+    private static ClientResponse json(HttpStatus status, String body) {
+        return ClientResponse.create(status)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchCacheTest {
+    private static final int CLIENTS = 16;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+    private AtomicInteger serverCalls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(meterRegistry, true, 100, Duration.ofMinutes(1));
+        serverCalls = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы по одному ключу ждут один запрос к серверу")
+    void get_whenConcurrentMisses_thenOneServerCall() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> serverResponse = new CompletableFuture<>();
+        Supplier<Mono<ResponseEntity<Object>>> loader = () -> {
+            serverCalls.incrementAndGet();
+            return Mono.fromFuture(serverResponse);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ResponseEntity<Object>>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("дрель", 0, 20, loader).block(Duration.ofSeconds(5));
+                }));
+            }
+            start.countDown();
+            // ответ сервера приходит, когда все клиенты уже ждут его
+            TimeUnit.MILLISECONDS.sleep(200);
+            ResponseEntity<Object> response = ResponseEntity.ok(List.of("дрель"));
+            serverResponse.complete(response);
+
+            for (Future<ResponseEntity<Object>> future : responses) {
+                assertSame(response, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("Повторный запрос отвечается из кэша")
+    void get_whenCached_thenNoServerCall() {
+        ResponseEntity<Object> first = cache.get("дрель", 0, 20, ok()).block();
+        ResponseEntity<Object> second = cache.get("дрель", 0, 20, ok()).block();
+
+        assertSame(first, second);
+        assertEquals(1, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("Разные text, from и size - разные ключи")
+    void get_whenDifferentKey_thenServerCall() {
+        cache.get("дрель", 0, 20, ok()).block();
+        cache.get("дрель", 20, 20, ok()).block();
+        cache.get("дрель", 0, 10, ok()).block();
+        cache.get("отвертка", 0, 20, ok()).block();
+
+        assertEquals(4, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("Ответы 4xx и 5xx не кэшируются")
+    void get_whenErrorStatus_thenNotCached() {
+        for (HttpStatus status : List.of(HttpStatus.BAD_REQUEST, HttpStatus.INTERNAL_SERVER_ERROR)) {
+            serverCalls.set(0);
+
+            assertEquals(status, cache.get("ошибка", 0, 20, status(status)).block().getStatusCode());
+            assertEquals(status, cache.get("ошибка", 0, 20, status(status)).block().getStatusCode());
+            assertEquals(2, serverCalls.get());
+        }
+        assertEquals(HttpStatus.OK, cache.get("ошибка", 0, 20, ok()).block().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Исключение загрузки не кэшируется")
+    void get_whenLoaderFails_thenNotCached() {
+        Supplier<Mono<ResponseEntity<Object>>> failing = () -> {
+            serverCalls.incrementAndGet();
+            return Mono.error(new IllegalStateException("сервер недоступен"));
+        };
+
+        Mono<ResponseEntity<Object>> failed = cache.get("дрель", 0, 20, failing);
+        assertThrows(IllegalStateException.class, failed::block);
+        cache.get("дрель", 0, 20, ok()).block();
+
+        assertEquals(2, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("Пустой ответ загрузки завершает всех ожидающих и не кэшируется")
+    void get_whenLoaderEmpty_thenCompletedAndNotCached() {
+        Sinks.Empty<ResponseEntity<Object>> serverResponse = Sinks.empty();
+        Supplier<Mono<ResponseEntity<Object>>> empty = () -> {
+            serverCalls.incrementAndGet();
+            return serverResponse.asMono().then(Mono.empty());
+        };
+        Mono<ResponseEntity<Object>> first = cache.get("дрель", 0, 20, empty);
+        Mono<ResponseEntity<Object>> second = cache.get("дрель", 0, 20, empty);
+
+        serverResponse.tryEmitEmpty();
+
+        assertNull(first.block(Duration.ofSeconds(5)));
+        assertNull(second.block(Duration.ofSeconds(5)));
+        assertEquals(1, serverCalls.get());
+        cache.get("дрель", 0, 20, ok()).block();
+        assertEquals(2, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("После invalidateAll ответ загружается заново")
+    void invalidateAll_thenServerCalledAgain() {
+        cache.get("дрель", 0, 20, ok()).block();
+
+        cache.invalidateAll();
+        cache.get("дрель", 0, 20, ok()).block();
+
+        assertEquals(2, serverCalls.get());
+    }
+
+    @Test
+    @DisplayName("Попадания и промахи публикуются метрикой cache.gets")
+    void get_thenHitAndMissMetrics() {
+        cache.get("дрель", 0, 20, ok()).block();
+        cache.get("дрель", 0, 20, ok()).block();
+        cache.get("дрель", 0, 20, ok()).block();
+
+        assertEquals(2, gets("hit"));
+        assertEquals(1, gets("miss"));
+        assertEquals(1, meterRegistry.get("cache.size").tag("cache", "itemSearch").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Выключенный кэш всегда обращается к серверу и не публикует метрик")
+    void get_whenDisabled_thenServerCallEveryTime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ItemSearchCache disabled = new ItemSearchCache(registry, false, 100, Duration.ofMinutes(1));
+
+        disabled.get("дрель", 0, 20, ok()).block();
+        disabled.get("дрель", 0, 20, ok()).block();
+
+        assertEquals(2, serverCalls.get());
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    private Supplier<Mono<ResponseEntity<Object>>> ok() {
+        return status(HttpStatus.OK);
+    }
+
+    private Supplier<Mono<ResponseEntity<Object>>> status(HttpStatus status) {
+        return () -> {
+            serverCalls.incrementAndGet();
+            return Mono.just(ResponseEntity.status(status).body(List.of()));
+        };
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", result)
+                .functionCounter().count();
+    }
+}
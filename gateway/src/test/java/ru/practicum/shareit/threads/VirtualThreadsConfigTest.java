@@ -0,0 +1,43 @@
+package ru.practicum.shareit.threads;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsConfigTest {
+    private static final boolean JAVA_21 = Runtime.version().feature() >= 21;
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    void whenPropertyNotSet_thenTomcatExecutorNotReplaced() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenEnabledOnJava21_thenTomcatServesRequestsOnVirtualThreads() {
+        assumeTrue(JAVA_21);
+        contextRunner.withPropertyValues("shareit.threads.virtual=true").run(context -> {
+            Http11NioProtocol protocol = new Http11NioProtocol();
+            context.getBean(TomcatProtocolHandlerCustomizer.class).customize(protocol);
+
+            assertThat(protocol.getExecutor().getClass().getName()).contains("ThreadPerTaskExecutor");
+        });
+    }
+
+    @Test
+    void whenEnabledBeforeJava21_thenStartupFailsWithClearMessage() {
+        assumeTrue(!JAVA_21);
+        contextRunner.withPropertyValues("shareit.threads.virtual=true").run(context -> assertThat(context)
+                .getFailure()
+                .hasStackTraceContaining("shareit.threads.virtual=true требует Java 21.")
+                .getRootCause()
+                .isInstanceOf(NoSuchMethodException.class));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveServerConnector;
+import ru.practicum.shareit.item.ItemSearchCache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserClientTest {
+    private static final String SERVER_URL = "http://shareit-server";
+
+    private CloseableHttpClient httpClient;
+    private UserClient userClient;
+    private ItemSearchCache searchCache;
+    private AtomicInteger searchCalls;
+    private HttpStatus deleteStatus;
+
+    @BeforeEach
+    void setUp() {
+        searchCalls = new AtomicInteger();
+        deleteStatus = HttpStatus.OK;
+        WebClient webClient = WebClient.builder()
+                .baseUrl(SERVER_URL + "/users")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(deleteStatus)
+                        .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .body("{}")
+                        .build()))
+                .build();
+        ReactiveServerConnector connector = mock(ReactiveServerConnector.class);
+        when(connector.webClient(anyString())).thenReturn(webClient);
+        httpClient = HttpClients.createDefault();
+        searchCache = new ItemSearchCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+        userClient = new UserClient(SERVER_URL, new RestTemplateBuilder(), httpClient, connector, searchCache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+    }
+
+    @Test
+    @DisplayName("Успешное удаление пользователя сбрасывает кэш поиска: его вещи удалены каскадом")
+    void deleteUserById_whenSuccessful_thenSearchCacheInvalidated() {
+        search();
+
+        userClient.deleteUserById(1L).block();
+        search();
+
+        assertEquals(2, searchCalls.get());
+    }
+
+    @Test
+    @DisplayName("Неуспешное удаление пользователя кэш поиска не сбрасывает")
+    void deleteUserById_whenErrorStatus_thenSearchCacheKept() {
+        search();
+        deleteStatus = HttpStatus.NOT_FOUND;
+
+        userClient.deleteUserById(1L).block();
+        search();
+
+        assertEquals(1, searchCalls.get());
+    }
+
+    private void search() {
+        searchCache.get("дрель", 0, 20, () -> {
+            searchCalls.incrementAndGet();
+            return Mono.just(ResponseEntity.ok("[]"));
+        }).block();
+    }
+}
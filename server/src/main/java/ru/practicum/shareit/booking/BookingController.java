@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,6 +12,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -20,6 +24,7 @@ import ru.practicum.shareit.exception.UnsupportedStatusException;
 
 import java.util.List;
 
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
 
 @RestController
@@ -56,6 +61,20 @@ public class BookingController {
         return bookingService.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/approve")
+    public List<BookingApprovalResultDto> approveBookings(@RequestHeader(REQUEST_HEADER) Long ownerId,
+                                                          @RequestBody BookingApprovalRequestDto approvalDto) {
+        if (approvalDto.getBookingIds() == null || approvalDto.getBookingIds().isEmpty()) {
+            throw new BadRequestException("Не указаны id бронирований.");
+        }
+        if (approvalDto.getApproved() == null) {
+            throw new BadRequestException("Не указано решение по бронированиям.");
+        }
+        log.info("Получен PATCH-запрос к эндпоинту: /bookings/approve с ответом владельца с id = {} " +
+                "на {} бронирований.", ownerId, approvalDto.getBookingIds().size());
+        return bookingService.approveBookings(ownerId, approvalDto.getBookingIds(), approvalDto.getApproved());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@RequestHeader(REQUEST_HEADER) Long userId,
                                              @PathVariable Long bookingId) {
@@ -65,29 +84,44 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(
             @RequestHeader(REQUEST_HEADER) Long bookerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "20") Integer size) {
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor) {
         BookingState bookingState = BookingState.toState(state).orElseThrow(
                 () -> new UnsupportedStatusException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: /bookings на получение информации о бронирование" +
                 " пользователя с id = {}", bookerId);
-
-        return bookingService.getUserBookings(bookerId, bookingState, from, size);
+        if (cursor != null) {
+            return toCursorResponse(bookingService.getUserBookingsByCursor(bookerId, bookingState, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getUserBookings(bookerId, bookingState, from, size));
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(
             @RequestHeader(REQUEST_HEADER) Long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "20") Integer size) {
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor) {
         BookingState bookingState = BookingState.toState(state).orElseThrow(
                 () -> new UnsupportedStatusException("Unknown state: " + state));
         log.info("Получен GET-запрос к эндпоинту: /bookings/owner на получение информации о бронирование" +
                 " собственника с id = {}", ownerId);
-        return bookingService.getOwnerBookings(ownerId, bookingState, from, size);
+        if (cursor != null) {
+            return toCursorResponse(bookingService.getOwnerBookingsByCursor(ownerId, bookingState, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getOwnerBookings(ownerId, bookingState, from, size));
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> toCursorResponse(BookingCursorPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
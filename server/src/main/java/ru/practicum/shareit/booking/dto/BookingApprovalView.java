@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Status;
+
+public interface BookingApprovalView extends BookingIntervalView {
+    Long getId();
+
+    Long getOwnerId();
+
+    Status getStatus();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingIntervalView {
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    // полуоткрытые интервалы [start, end): бронирование может начаться в момент окончания предыдущего
+    default boolean overlaps(BookingIntervalView other) {
+        return getStart().isBefore(other.getEnd()) && getEnd().isAfter(other.getStart());
+    }
+}
@@ -29,6 +29,12 @@ public class BookingResponseDto {
     Status status;
     ShortUserDto booker;
     ShortItemDto item;
+
+    // конструктор для JPQL-проекции в BookingRepository
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                              Long bookerId, Long itemId, String itemName) {
+        this(id, start, end, status, new ShortUserDto(bookerId), new ShortItemDto(itemId, itemName));
+    }
 }
 
 
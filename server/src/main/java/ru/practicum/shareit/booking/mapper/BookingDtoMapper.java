@@ -6,6 +6,7 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 import ru.practicum.shareit.booking.dto.BookingBookerDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
@@ -22,6 +23,8 @@ public interface BookingDtoMapper {
     @Mapping(target = "bookerId", source = "booker.id")
     BookingBookerDto toBookingBookerDto(Booking booking);
 
+    BookingBookerDto toBookingBookerDto(ItemBookingView view);
+
     BookingResponseDto mapToBookingResponseDto(Booking booking);
 
     List<BookingResponseDto> mapToBookingResponseDtoList(List<Booking> bookings);
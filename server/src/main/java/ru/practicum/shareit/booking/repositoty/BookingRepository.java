@@ -1,54 +1,237 @@
 package ru.practicum.shareit.booking.repositoty;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId,
-                                                                          LocalDateTime now1,
-                                                                          LocalDateTime now2,
-                                                                          Pageable pageable);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findByBookerIdAndStatusEquals(Long bookerId, Status status, Pageable pageable);
-
-    List<Booking> findByItem_OwnerOrderByStartDesc(User owner, Pageable pageable);
-
-    List<Booking> findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(User owner,
-                                                                            LocalDateTime now1,
-                                                                            LocalDateTime now2,
+    // проекция списков бронирований: только колонки ответа, без загрузки сущностей Booking, Item и User
+    String SELECT_RESPONSE_DTO = "select new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, i.id, i.name) from Booking b join b.item i ";
+
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId order by b.start desc")
+    List<BookingResponseDto> findByBookerIdOrderByStartDesc(@Param("bookerId") Long bookerId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.start < :now1 and b.end > :now2 " +
+            "order by b.start desc")
+    List<BookingResponseDto> findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                                     @Param("now1") LocalDateTime now1,
+                                                                                     @Param("now2") LocalDateTime now2,
+                                                                                     Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.end < :now order by b.start desc")
+    List<BookingResponseDto> findByBookerIdAndEndBeforeOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                        @Param("now") LocalDateTime now,
+                                                                        Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.start > :now order by b.start desc")
+    List<BookingResponseDto> findByBookerIdAndStartAfterOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                         @Param("now") LocalDateTime now,
+                                                                         Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.status = :status")
+    List<BookingResponseDto> findByBookerIdAndStatusEquals(@Param("bookerId") Long bookerId,
+                                                           @Param("status") Status status,
+                                                           Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId order by b.start desc")
+    List<BookingResponseDto> findByItem_OwnerIdOrderByStartDesc(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.start < :now1 and b.end > :now2 " +
+            "order by b.start desc")
+    List<BookingResponseDto> findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+            @Param("ownerId") Long ownerId,
+            @Param("now1") LocalDateTime now1,
+            @Param("now2") LocalDateTime now2,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.end < :now order by b.start desc")
+    List<BookingResponseDto> findByItem_OwnerIdAndEndBeforeOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                            @Param("now") LocalDateTime now,
                                                                             Pageable pageable);
 
-    List<Booking> findByItem_OwnerAndEndBeforeOrderByStartDesc(User owner, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findByItem_OwnerAndStartAfterOrderByStartDesc(User owner, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findByItem_OwnerAndStatusEquals(User owner, Status status, Pageable pageable);
-
-    Booking findFirst1ByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(Long itemId,
-                                                                             LocalDateTime moment,
-                                                                             Status status);
-
-    Booking findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(Long itemId,
-                                                                               LocalDateTime moment,
-                                                                               Status status);
-
-    Optional<Booking> findFirst1ByBookerIdAndItem_IdAndEndIsBeforeAndStatus(Long authorId, Long itemId,
-                                                                            LocalDateTime now, Status status);
-
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.start > :now order by b.start desc")
+    List<BookingResponseDto> findByItem_OwnerIdAndStartAfterOrderByStartDesc(@Param("ownerId") Long ownerId,
+                                                                             @Param("now") LocalDateTime now,
+                                                                             Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.status = :status")
+    List<BookingResponseDto> findByItem_OwnerIdAndStatusEquals(@Param("ownerId") Long ownerId,
+                                                               @Param("status") Status status,
+                                                               Pageable pageable);
+
+    // keyset-пагинация: следующая страница начинается строго после (start, id) последнего бронирования
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findBookerBookingsAfter(@Param("bookerId") Long bookerId,
+                                                     @Param("start") LocalDateTime start,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.start < :now and b.end > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findBookerCurrentBookingsAfter(@Param("bookerId") Long bookerId,
+                                                            @Param("now") LocalDateTime now,
+                                                            @Param("start") LocalDateTime start,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.end < :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findBookerPastBookingsAfter(@Param("bookerId") Long bookerId,
+                                                         @Param("now") LocalDateTime now,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("id") Long id,
+                                                         Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.start > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findBookerFutureBookingsAfter(@Param("bookerId") Long bookerId,
+                                                           @Param("now") LocalDateTime now,
+                                                           @Param("start") LocalDateTime start,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where b.booker.id = :bookerId and b.status = :status " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findBookerBookingsByStatusAfter(@Param("bookerId") Long bookerId,
+                                                             @Param("status") Status status,
+                                                             @Param("start") LocalDateTime start,
+                                                             @Param("id") Long id,
+                                                             Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findOwnerBookingsAfter(@Param("ownerId") Long ownerId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.start < :now and b.end > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findOwnerCurrentBookingsAfter(@Param("ownerId") Long ownerId,
+                                                           @Param("now") LocalDateTime now,
+                                                           @Param("start") LocalDateTime start,
+                                                           @Param("id") Long id,
+                                                           Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.end < :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findOwnerPastBookingsAfter(@Param("ownerId") Long ownerId,
+                                                        @Param("now") LocalDateTime now,
+                                                        @Param("start") LocalDateTime start,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.start > :now " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findOwnerFutureBookingsAfter(@Param("ownerId") Long ownerId,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @Query(SELECT_RESPONSE_DTO + "where i.owner.id = :ownerId and b.status = :status " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findOwnerBookingsByStatusAfter(@Param("ownerId") Long ownerId,
+                                                            @Param("status") Status status,
+                                                            @Param("start") LocalDateTime start,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // последнее начавшееся и ближайшее будущее бронирование каждой вещи за один проход по таблице
+    @Query(value = "SELECT ranked.item_id AS itemId, ranked.booking_id AS id, ranked.booker_id AS bookerId, " +
+            "ranked.start_date AS startDate " +
+            "FROM (SELECT b.item_id, b.booking_id, b.booker_id, b.start_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id, CASE WHEN b.start_date <= :moment THEN 0 ELSE 1 END " +
+            "ORDER BY CASE WHEN b.start_date <= :moment THEN b.start_date END DESC, b.start_date) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) AND b.booking_status = :status) ranked " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookingsByItemIds(@Param("itemIds") List<Long> itemIds,
+                                                           @Param("moment") LocalDateTime moment,
+                                                           @Param("status") String status);
+
+    // явный запрос: производный по имени метода сравнивает id через join с users и items, и БД читает всю таблицу
+    @Query("select b from Booking b join fetch b.item join fetch b.booker " +
+            "where b.booker.id = :bookerId and b.item.id = :itemId and b.end < :now and b.status = :status")
+    List<Booking> findBookerPastItemBookings(@Param("bookerId") Long bookerId,
+                                             @Param("itemId") Long itemId,
+                                             @Param("now") LocalDateTime now,
+                                             @Param("status") Status status,
+                                             Pageable pageable);
+
+    // проверка пересечения по индексу (item_id, start_date, end_date)
+    @Query("select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = :itemId and b.status = :status and b.start < :end and b.end > :start")
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfter(@Param("itemId") Long itemId,
+                                                              @Param("status") Status status,
+                                                              @Param("end") LocalDateTime end,
+                                                              @Param("start") LocalDateTime start);
+
+    @Query("select b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            "where b.item.id in :itemIds and b.status = :status and b.start < :end and b.end > :start")
+    List<BookingIntervalView> findIntervalsByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                      @Param("status") Status status,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
+
+    // интервалы для индекса доступности: по индексу (item_id, start_date, end_date), уже отсортированы по началу
+    @Query("select new ru.practicum.shareit.booking.dto.BookingSlotDto(b.id, b.start, b.end, b.status) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.end > :after " +
+            "order by b.start")
+    List<BookingSlotDto> findSlotsByItemId(@Param("itemId") Long itemId,
+                                           @Param("statuses") Collection<Status> statuses,
+                                           @Param("after") LocalDateTime after);
+
+    // владельцы и статусы пачки бронирований одним запросом, без загрузки сущностей
+    @Query("select b.id as id, i.owner.id as ownerId, b.status as status, i.id as itemId, " +
+            "b.start as start, b.end as end from Booking b join b.item i where b.id in :ids")
+    List<BookingApprovalView> findApprovalViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // compare-and-set: статус меняется, только если бронирование не изменилось после чтения
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :id and b.version = :version and b.status = :expected")
+    int updateStatusByIdAndVersion(@Param("id") Long id,
+                                   @Param("version") Long version,
+                                   @Param("expected") Status expected,
+                                   @Param("status") Status status);
+
+    // блокировка ожидающих бронирований пачки до конца транзакции. Бронирования, которые параллельный запрос
+    // успел перевести из WAITING, не возвращаются; порядок по id исключает взаимоблокировки между пачками
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Booking b where b.id in :ids and b.status = :status order by b.id")
+    List<Long> lockIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") Status status);
+
+    // условие на статус защищает от повторного решения, принятого параллельно
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = :expected")
+    int updateStatusByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                    @Param("expected") Status expected,
+                                    @Param("status") Status status);
 }
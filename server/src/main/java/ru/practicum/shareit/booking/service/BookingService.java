@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -11,9 +13,15 @@ public interface BookingService {
 
     BookingResponseDto approveBooking(Long ownerId, Long bookingId, boolean approved);
 
+    List<BookingApprovalResultDto> approveBookings(Long ownerId, List<Long> bookingIds, boolean approved);
+
     BookingResponseDto getBookingById(Long userId, Long bookingId);
 
     List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, Integer from, Integer size);
 
     List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, Integer from, Integer size);
+
+    BookingCursorPage getUserBookingsByCursor(Long bookerId, BookingState state, String cursor, Integer size);
+
+    BookingCursorPage getOwnerBookingsByCursor(Long ownerId, BookingState state, String cursor, Integer size);
 }
@@ -2,39 +2,68 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingCursorPage;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
 import ru.practicum.shareit.booking.mapper.BookingDtoMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repositoty.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final String OVERLAP_MESSAGE = "Вещь уже забронирована на пересекающийся период.";
+    // ограничение из schema-postgres.sql: подтверждённые бронирования одной вещи не пересекаются
+    private static final String OVERLAP_CONSTRAINT = "ex_bookings_item_approved_overlap";
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingDtoMapper dtoMapper;
+    private final ItemAvailabilityIndex availabilityIndex;
 
+    @Transactional
     @Override
     public BookingResponseDto addBooking(BookingRequestDto bookingDto, Long bookerId) {
         User booker = checkUserExistAndGet(bookerId);
@@ -42,14 +71,23 @@ public class BookingServiceImpl implements BookingService {
         if (booker.getId().equals(item.getOwner().getId())) {
             throw new NotFoundException("Владелец вещи не может бронировать свои вещи.");
         }
+        // пересечения между ожидающими допустимы: выбирает владелец, а при подтверждении они исключаются
+        if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(item.getId(), Status.APPROVED,
+                bookingDto.getEnd(), bookingDto.getStart())) {
+            throw new ConflictException(OVERLAP_MESSAGE);
+        }
         Booking booking = dtoMapper.mapToBooking(bookingDto, item, booker, Status.WAITING);
+        Booking savedBooking = bookingRepository.save(booking);
+        availabilityIndex.onBookingAdded(item.getId(), new BookingSlotDto(savedBooking.getId(),
+                savedBooking.getStart(), savedBooking.getEnd(), savedBooking.getStatus()));
         log.info("Бронирование веши {} ожидает подтверждения от владельца", item);
-        return dtoMapper.mapToBookingResponseDto(bookingRepository.save(booking));
+        return dtoMapper.mapToBookingResponseDto(savedBooking);
     }
 
+    @Transactional
     @Override
     public BookingResponseDto approveBooking(Long ownerId, Long bookingId, boolean approved) {
-        checkUserExistAndGet(ownerId);
+        checkUserExists(ownerId);
         Booking booking = checkBookingExistAndGet(bookingId);
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
             throw new NotFoundException("Пользователь не является владельцем вещи."); // postman требует 404
@@ -57,13 +95,84 @@ public class BookingServiceImpl implements BookingService {
         if (!booking.getStatus().equals(Status.WAITING)) {
             throw new BadRequestException("Бронь с id = " + bookingId + " не ожидает подтверждения");
         }
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return dtoMapper.mapToBookingResponseDto(bookingRepository.save(booking));
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (approved) {
+            itemRepository.lockAllByIdIn(List.of(booking.getItem().getId()));
+            if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(booking.getItem().getId(),
+                    Status.APPROVED, booking.getEnd(), booking.getStart())) {
+                throw new ConflictException(OVERLAP_MESSAGE);
+            }
+        }
+        if (!compareAndSetStatus(booking, status)) {
+            throw new ConflictException("Бронь с id = " + bookingId + " изменена параллельным запросом");
+        }
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        availabilityIndex.onStatusChanged(booking.getItem().getId(), bookingId, status);
+        log.info("Статус бронирования {} изменён на {}.", bookingId, status);
+        return dtoMapper.mapToBookingResponseDto(booking);
+    }
+
+    @Transactional
+    @Override
+    public List<BookingApprovalResultDto> approveBookings(Long ownerId, List<Long> bookingIds, boolean approved) {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            throw new BadRequestException("Не указаны id бронирований.");
+        }
+        checkUserExists(ownerId);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, BookingApprovalView> views = bookingRepository.findApprovalViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookingApprovalView::getId, Function.identity()));
+        Map<Long, String> errors = new HashMap<>();
+        List<BookingApprovalView> waiting = new ArrayList<>();
+        for (Long id : ids) {
+            BookingApprovalView view = views.get(id);
+            if (view == null) {
+                errors.put(id, "Бронь с id = " + id + " не найдена.");
+            } else if (!view.getOwnerId().equals(ownerId)) {
+                errors.put(id, "Пользователь не является владельцем вещи.");
+            } else if (!view.getStatus().equals(Status.WAITING)) {
+                errors.put(id, "Бронь с id = " + id + " не ожидает подтверждения");
+            } else {
+                waiting.add(view);
+            }
+        }
+        if (approved && !waiting.isEmpty()) {
+            waiting = withoutApprovedOverlaps(waiting, errors);
+        }
+        if (!waiting.isEmpty()) {
+            List<Long> waitingIds = waiting.stream().map(BookingApprovalView::getId).collect(Collectors.toList());
+            // применённым считается только то, что изменит этот запрос: строки, всё ещё ожидающие решения,
+            // блокируются до коммита, а решённые параллельно - даже тем же статусом - возвращаются как ошибка
+            Set<Long> locked = new HashSet<>(bookingRepository.lockIdsByIdInAndStatus(waitingIds, Status.WAITING));
+            waiting.stream()
+                    .filter(view -> !locked.contains(view.getId()))
+                    .forEach(view -> errors.put(view.getId(),
+                            "Бронь с id = " + view.getId() + " не ожидает подтверждения"));
+            if (!locked.isEmpty()) {
+                try {
+                    bookingRepository.updateStatusByIdInAndStatus(locked, Status.WAITING, status);
+                } catch (DataIntegrityViolationException e) {
+                    throw overlapConflictOr(e);
+                }
+            }
+            waiting.stream()
+                    .filter(view -> locked.contains(view.getId()))
+                    .forEach(view -> availabilityIndex.onStatusChanged(view.getItemId(), view.getId(), status));
+        }
+        log.info("Решение {} по {} бронированиям владельца {}, не применено: {}.", status, ids.size(), ownerId,
+                errors.size());
+        return ids.stream()
+                .map(id -> errors.containsKey(id)
+                        ? BookingApprovalResultDto.builder().bookingId(id).error(errors.get(id)).build()
+                        : BookingApprovalResultDto.builder().bookingId(id).status(status).build())
+                .collect(Collectors.toList());
     }
 
     @Override
     public BookingResponseDto getBookingById(Long userId, Long bookingId) {
-        checkUserExistAndGet(userId);
+        checkUserExists(userId);
         Booking booking = checkBookingExistAndGet(bookingId);
         Long ownerId = booking.getItem().getOwner().getId();
         Long bookerId = booking.getBooker().getId();
@@ -76,77 +185,211 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingResponseDto> getUserBookings(Long bookerId, BookingState state, Integer from, Integer size) {
-        checkUserExistAndGet(bookerId);
+        checkUserExists(bookerId);
         LocalDateTime now = LocalDateTime.now();
         Pageable page = PageRequest.of((int) from / size, size);
         Pageable sortPage = PageRequest.of((int) from / size, size, Sort.by(Sort.Direction.ASC, "id"));
-        List<Booking> userBookings;
+        List<BookingResponseDto> userBookings;
         switch (state) {
             case ALL:
                 userBookings = bookingRepository.findByBookerIdOrderByStartDesc(bookerId, page);
                 log.info("Все бронирования: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
             case CURRENT:
                 userBookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId,
                         now, now, sortPage);
                 log.info("Текущие бронирования: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
             case PAST:
                 userBookings = bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(bookerId, now, page);
                 log.info("Завершённые бронирования: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
             case FUTURE:
                 userBookings = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(bookerId, now, page);
                 log.info("Будующие бронирования: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
             case WAITING:
                 userBookings = bookingRepository.findByBookerIdAndStatusEquals(bookerId, Status.WAITING, page);
                 log.info("Бронирования, ожидающие подтверждения: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
             case REJECTED:
                 userBookings = bookingRepository.findByBookerIdAndStatusEquals(bookerId, Status.REJECTED, page);
                 log.info("Отклонённые бронирования: {}.", userBookings);
-                return dtoMapper.mapToBookingResponseDtoList(userBookings);
+                return userBookings;
         }
         return Collections.emptyList();
     }
 
     @Override
     public List<BookingResponseDto> getOwnerBookings(Long ownerId, BookingState state, Integer from, Integer size) {
-        User owner = checkUserExistAndGet(ownerId);
+        checkUserExists(ownerId);
         LocalDateTime now = LocalDateTime.now();
         Pageable page = PageRequest.of((int) from / size, size);
-        List<Booking> ownerBookings;
+        List<BookingResponseDto> ownerBookings;
         switch (state) {
             case ALL:
-                ownerBookings = bookingRepository.findByItem_OwnerOrderByStartDesc(owner, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdOrderByStartDesc(ownerId, page);
                 log.info("Все бронирования: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
             case CURRENT:
-                ownerBookings = bookingRepository.findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(owner, now,
-                        now, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId,
+                        now, now, page);
                 log.info("Текущие бронирования: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
             case PAST:
-                ownerBookings = bookingRepository.findByItem_OwnerAndEndBeforeOrderByStartDesc(owner, now, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, page);
                 log.info("Завершённые бронирования: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
             case FUTURE:
-                ownerBookings = bookingRepository.findByItem_OwnerAndStartAfterOrderByStartDesc(owner, now, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdAndStartAfterOrderByStartDesc(ownerId, now, page);
                 log.info("Будующие бронирования: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
             case WAITING:
-                ownerBookings = bookingRepository.findByItem_OwnerAndStatusEquals(owner, Status.WAITING, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdAndStatusEquals(ownerId, Status.WAITING, page);
                 log.info("Бронирования, ожидающие подтверждения: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
             case REJECTED:
-                ownerBookings = bookingRepository.findByItem_OwnerAndStatusEquals(owner, Status.REJECTED, page);
+                ownerBookings = bookingRepository.findByItem_OwnerIdAndStatusEquals(ownerId, Status.REJECTED, page);
                 log.info("Отклонённые бронирования: {}.", ownerBookings);
-                return dtoMapper.mapToBookingResponseDtoList(ownerBookings);
+                return ownerBookings;
         }
         return Collections.emptyList();
     }
 
+    @Override
+    public BookingCursorPage getUserBookingsByCursor(Long bookerId, BookingState state, String cursor, Integer size) {
+        checkUserExists(bookerId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        // лишняя строка показывает, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<BookingResponseDto> userBookings;
+        switch (state) {
+            case CURRENT:
+                userBookings = bookingRepository.findBookerCurrentBookingsAfter(bookerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case PAST:
+                userBookings = bookingRepository.findBookerPastBookingsAfter(bookerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case FUTURE:
+                userBookings = bookingRepository.findBookerFutureBookingsAfter(bookerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case WAITING:
+                userBookings = bookingRepository.findBookerBookingsByStatusAfter(bookerId, Status.WAITING,
+                        after.getStart(), after.getId(), limit);
+                break;
+            case REJECTED:
+                userBookings = bookingRepository.findBookerBookingsByStatusAfter(bookerId, Status.REJECTED,
+                        after.getStart(), after.getId(), limit);
+                break;
+            default:
+                userBookings = bookingRepository.findBookerBookingsAfter(bookerId, after.getStart(), after.getId(),
+                        limit);
+        }
+        log.info("Бронирования пользователя с id = {} в состоянии {} после cursor: {}.", bookerId, state, userBookings);
+        return toCursorPage(userBookings, size);
+    }
+
+    @Override
+    public BookingCursorPage getOwnerBookingsByCursor(Long ownerId, BookingState state, String cursor, Integer size) {
+        checkUserExists(ownerId);
+        BookingCursor after = BookingCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        // лишняя строка показывает, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<BookingResponseDto> ownerBookings;
+        switch (state) {
+            case CURRENT:
+                ownerBookings = bookingRepository.findOwnerCurrentBookingsAfter(ownerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case PAST:
+                ownerBookings = bookingRepository.findOwnerPastBookingsAfter(ownerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case FUTURE:
+                ownerBookings = bookingRepository.findOwnerFutureBookingsAfter(ownerId, now, after.getStart(),
+                        after.getId(), limit);
+                break;
+            case WAITING:
+                ownerBookings = bookingRepository.findOwnerBookingsByStatusAfter(ownerId, Status.WAITING,
+                        after.getStart(), after.getId(), limit);
+                break;
+            case REJECTED:
+                ownerBookings = bookingRepository.findOwnerBookingsByStatusAfter(ownerId, Status.REJECTED,
+                        after.getStart(), after.getId(), limit);
+                break;
+            default:
+                ownerBookings = bookingRepository.findOwnerBookingsAfter(ownerId, after.getStart(), after.getId(),
+                        limit);
+        }
+        log.info("Бронирования собственника с id = {} в состоянии {} после cursor: {}.", ownerId, state, ownerBookings);
+        return toCursorPage(ownerBookings, size);
+    }
+
+    // выбрано size + 1 строк: курсор выдаётся, только если за страницей есть ещё бронирования
+    private BookingCursorPage toCursorPage(List<BookingResponseDto> bookings, Integer size) {
+        if (bookings.size() <= size) {
+            return new BookingCursorPage(bookings, null);
+        }
+        List<BookingResponseDto> page = bookings.subList(0, size);
+        return new BookingCursorPage(page, BookingCursor.of(page.get(size - 1)).encode());
+    }
+
+    // вещи блокируются, поэтому параллельное подтверждение пересекающихся интервалов ждёт этой транзакции;
+    // интервалы проверяются и с уже подтверждёнными, и между собой внутри пачки
+    private List<BookingApprovalView> withoutApprovedOverlaps(List<BookingApprovalView> candidates,
+                                                              Map<Long, String> errors) {
+        Set<Long> itemIds = candidates.stream().map(BookingApprovalView::getItemId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        itemRepository.lockAllByIdIn(itemIds);
+        LocalDateTime from = candidates.stream().map(BookingApprovalView::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = candidates.stream().map(BookingApprovalView::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<BookingIntervalView>> taken = bookingRepository
+                .findIntervalsByItemIdIn(itemIds, Status.APPROVED, from, to).stream()
+                .collect(Collectors.groupingBy(BookingIntervalView::getItemId, Collectors.toCollection(ArrayList::new)));
+        List<BookingApprovalView> accepted = new ArrayList<>();
+        for (BookingApprovalView candidate : candidates) {
+            List<BookingIntervalView> itemIntervals = taken.computeIfAbsent(candidate.getItemId(),
+                    itemId -> new ArrayList<>());
+            if (itemIntervals.stream().anyMatch(candidate::overlaps)) {
+                errors.put(candidate.getId(), OVERLAP_MESSAGE);
+            } else {
+                itemIntervals.add(candidate);
+                accepted.add(candidate);
+            }
+        }
+        return accepted;
+    }
+
+    // строка не блокируется между чтением и записью: проигравший гонку запрос получает 0 обновлённых строк
+    // или, если СУБД обнаружила конфликт сама, ошибку параллельного обновления
+    private boolean compareAndSetStatus(Booking booking, Status status) {
+        try {
+            return bookingRepository.updateStatusByIdAndVersion(booking.getId(), booking.getVersion(),
+                    Status.WAITING, status) == 1;
+        } catch (ConcurrencyFailureException e) {
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            throw overlapConflictOr(e);
+        }
+    }
+
+    // пересечение, пропущенное проверкой в приложении, отклоняет ограничение БД; клиент получает тот же 409
+    private static RuntimeException overlapConflictOr(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.toLowerCase(Locale.ROOT).contains(OVERLAP_CONSTRAINT)) {
+            log.warn("Пересечение подтверждённых бронирований отклонено ограничением БД: {}", message);
+            return new ConflictException(OVERLAP_MESSAGE);
+        }
+        return e;
+    }
+
     private Item checkItemExistAndGetAvailable(Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new ItemNotFoundException("Вещь с id = " + itemId + " не найдена."));
@@ -156,6 +399,12 @@ public class BookingServiceImpl implements BookingService {
         return item;
     }
 
+    private void checkUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("Пользователь с id = " + userId + " не найден.");
+        }
+    }
+
     private User checkUserExistAndGet(Long userId) {
         return userRepository.findById(userId).orElseThrow(
                 () -> new UserNotFoundException("Пользователь с id = " + userId + " не найден."));
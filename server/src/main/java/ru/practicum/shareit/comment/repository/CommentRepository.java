@@ -1,5 +1,6 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.comment.model.Comment;
 
@@ -7,4 +8,7 @@ import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItem_Id(Long itemId);
+
+    @EntityGraph(attributePaths = {"author"})
+    List<Comment> findByItem_IdIn(List<Long> itemIds);
 }
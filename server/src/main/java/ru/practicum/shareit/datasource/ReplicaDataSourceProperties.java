@@ -0,0 +1,31 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "shareit.datasource.routing")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+    // сколько реплика, не выдавшая соединение, не получает чтения
+    private Duration retryInterval = Duration.ofSeconds(30);
+    // короткое ожидание соединения: недоступная реплика не должна задерживать чтение на 30 секунд Hikari
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+    // чтений примерно в 20 раз больше, чем записей: пул каждой реплики задаётся отдельно от основного
+    private int maximumPoolSize = 20;
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
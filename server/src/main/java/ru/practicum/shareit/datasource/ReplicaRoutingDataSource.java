@@ -0,0 +1,151 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Маршрутизация соединений: работа внутри {@code @Transactional(readOnly = true)} уходит на реплики по кругу,
+ * всё остальное - на основную БД. Реплика, не выдавшая соединение, исключается на {@code retryInterval};
+ * если исправных реплик нет, чтение выполняется на основной БД.
+ * Флаг read-only известен только после начала транзакции, поэтому источник оборачивается
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * Метрики регистрируются через {@link MeterBinder}: реестр метрик сам зависит от источников данных.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, Closeable {
+    public static final String ROUTING_METRIC = "shareit.datasource.routing";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long retryIntervalMillis;
+    // момент (мс), до которого реплика считается неисправной
+    private final AtomicLongArray downUntil;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder fallbackRoutes = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryInterval) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryIntervalMillis = retryInterval.toMillis();
+        this.downUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        routeCounter("primary", primaryRoutes, meterRegistry);
+        routeCounter("replica", replicaRoutes, meterRegistry);
+        routeCounter("fallback", fallbackRoutes, meterRegistry);
+        // пулы реплик не бины, поэтому actuator не публикует их метрики hikaricp.* сам
+        for (DataSource replica : replicas) {
+            if (replica instanceof HikariDataSource) {
+                ((HikariDataSource) replica).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+        }
+        Gauge.builder("shareit.datasource.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Количество реплик, доступных для чтения")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    // выбранный источник сам решает, поддерживает ли он другие учётные данные (пул Hikari - нет)
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    // пулы реплик не являются бинами контекста, поэтому закрываются вместе с маршрутизатором
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable) {
+                ((Closeable) replica).close();
+            }
+        }
+    }
+
+    int healthyReplicas() {
+        long now = System.currentTimeMillis();
+        int healthy = 0;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (isHealthy(i, now)) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    private Connection route(ConnectionFactory factory) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryRoutes.increment();
+            return factory.connect(primary);
+        }
+        Connection connection = getReplicaConnection(factory);
+        if (connection != null) {
+            replicaRoutes.increment();
+            return connection;
+        }
+        fallbackRoutes.increment();
+        return factory.connect(primary);
+    }
+
+    private Connection getReplicaConnection(ConnectionFactory factory) throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = (start + attempt) % replicas.size();
+            if (!isHealthy(index, System.currentTimeMillis())) {
+                continue;
+            }
+            try {
+                return factory.connect(replicas.get(index));
+            } catch (SQLFeatureNotSupportedException e) {
+                // способ получения соединения не поддерживается: реплика исправна, ошибка - вызывающему
+                throw e;
+            } catch (SQLException e) {
+                downUntil.set(index, System.currentTimeMillis() + retryIntervalMillis);
+                log.warn("Реплика {} недоступна, чтение переключено на другие источники: {}", index, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private boolean isHealthy(int index, long now) {
+        return now >= downUntil.get(index);
+    }
+
+    private static void routeCounter(String route, LongAdder routes, MeterRegistry meterRegistry) {
+        FunctionCounter.builder(ROUTING_METRIC, routes, LongAdder::sum)
+                .description("Количество соединений, выданных основной БД и репликам")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -59,6 +59,13 @@ public class ErrorHandler {
                 new ErrorResponse(HttpStatus.NOT_FOUND.value(), e.getMessage()), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleConflict(final ConflictException e) {
+        log.error(e.getMessage(), e);
+        return new ResponseEntity<>(
+                new ErrorResponse(HttpStatus.CONFLICT.value(), e.getMessage()), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler
     public ResponseEntity<ErrorResponse> handleThrowable(final Throwable e) {
         log.error(e.getMessage(), e);
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -14,10 +17,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentResponseDto;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,6 +38,7 @@ import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
 @Slf4j
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public ItemBookingCommentDto getItemById(@RequestHeader(REQUEST_HEADER) Long userId, @PathVariable Long id) {
@@ -36,6 +46,16 @@ public class ItemController {
         return itemService.getItemById(userId, id);
     }
 
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getItemAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Получен GET-запрос к эндпоинту: /items/{id}/availability на проверку доступности вещи с id = {} " +
+                "с {} по {} .", id, from, to);
+        return itemService.getItemAvailability(id, from, to);
+    }
+
     @GetMapping
     public List<ItemBookingCommentDto> getOwnerItems(@RequestHeader(REQUEST_HEADER) Long ownerId,
                                                      @RequestParam(defaultValue = "0") Integer from,
@@ -64,6 +84,16 @@ public class ItemController {
         return itemService.saveItem(itemDto, userId);
     }
 
+    // JSON-массив или NDJSON читается потоково, без загрузки всего тела в память
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ItemBatchResultDto createItems(@RequestHeader(REQUEST_HEADER) Long userId,
+                                          InputStream body) throws IOException {
+        log.info("Получен POST-запрос к эндпоинту: /items/batch на импорт вещей пользователем с id = {} .", userId);
+        try (ItemBatchReader rows = new ItemBatchReader(objectMapper, body)) {
+            return itemService.saveItems(userId, rows);
+        }
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentResponseDto addComment(@RequestHeader(REQUEST_HEADER) Long userId,
                                          @PathVariable Long itemId, @RequestBody CommentDto commentDto) {
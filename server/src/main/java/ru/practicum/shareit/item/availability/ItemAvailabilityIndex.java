@@ -0,0 +1,247 @@
+package ru.practicum.shareit.item.availability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static ru.practicum.shareit.util.TransactionUtils.afterCommit;
+
+/**
+ * Подтверждённые и ожидающие бронирования вещей в памяти: для каждой вещи - массив интервалов,
+ * отсортированный по началу, с префиксным максимумом окончаний, и флаг available вещи. Число вещей ограничено LRU.
+ * Изменения применяются после коммита транзакции, поэтому индекс не видит откаченных бронирований.
+ * Удаление вещи и смена её доступности вытесняют вещь из индекса: в индексе только существующие вещи.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private static final Set<Status> INDEXED_STATUSES = Set.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> items;
+    private final Counter hits;
+    private final Counter misses;
+    // счётчик изменений: интервалы, прочитанные до параллельного изменения, в кэш не попадают
+    private long modifications;
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.availability.index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        };
+        Gauge.builder("shareit.availability.index.items", this, ItemAvailabilityIndex::size)
+                .description("Количество вещей в индексе доступности")
+                .register(meterRegistry);
+        hits = Counter.builder("shareit.availability.index.requests")
+                .tag("result", "hit")
+                .description("Проверки доступности, отвеченные из памяти")
+                .register(meterRegistry);
+        misses = Counter.builder("shareit.availability.index.requests")
+                .tag("result", "miss")
+                .description("Проверки доступности, потребовавшие запроса к БД")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Доступность вещи и её бронирования, пересекающиеся с [from, to), или пустой Optional, если вещи нет в индексе.
+     */
+    public Optional<ItemBookings> findOverlapping(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemIntervals intervals;
+        synchronized (items) {
+            intervals = items.get(itemId);
+        }
+        if (intervals == null || from.isBefore(intervals.loadedAfter)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new ItemBookings(intervals.itemAvailable, intervals.overlapping(from, to)));
+    }
+
+    /**
+     * Читает вещь и её бронирования из БД. Интервалы, не закончившиеся к текущему моменту, кэшируются;
+     * более ранние периоды каждый раз читаются из БД.
+     *
+     * @param itemAvailable читает флаг available вещи; бросает исключение, если вещи нет
+     */
+    public ItemBookings load(Long itemId, LocalDateTime from, LocalDateTime to, BooleanSupplier itemAvailable) {
+        LocalDateTime now = LocalDateTime.now();
+        if (from.isBefore(now)) {
+            boolean available = itemAvailable.getAsBoolean();
+            return new ItemBookings(available, new ItemIntervals(
+                    bookingRepository.findSlotsByItemId(itemId, INDEXED_STATUSES, from), from, available)
+                    .overlapping(from, to));
+        }
+        long seen;
+        synchronized (items) {
+            seen = modifications;
+        }
+        // вещь читается после запоминания счётчика: удаление, закоммиченное после чтения, не даст закэшировать её
+        boolean available = itemAvailable.getAsBoolean();
+        ItemIntervals intervals = new ItemIntervals(bookingRepository.findSlotsByItemId(itemId, INDEXED_STATUSES, now),
+                now, available);
+        synchronized (items) {
+            if (seen == modifications) {
+                items.put(itemId, intervals);
+            }
+        }
+        return new ItemBookings(available, intervals.overlapping(from, to));
+    }
+
+    public void onBookingAdded(Long itemId, BookingSlotDto slot) {
+        afterCommit(() -> update(itemId, slot.getId(), slot));
+    }
+
+    public void onStatusChanged(Long itemId, Long bookingId, Status status) {
+        afterCommit(() -> {
+            ItemIntervals intervals;
+            synchronized (items) {
+                intervals = items.get(itemId);
+            }
+            BookingSlotDto old = intervals == null ? null : intervals.find(bookingId);
+            BookingSlotDto slot = old == null || !INDEXED_STATUSES.contains(status)
+                    ? null : new BookingSlotDto(bookingId, old.getStart(), old.getEnd(), status);
+            update(itemId, bookingId, slot);
+        });
+    }
+
+    // удаление вещи или смена её флага available
+    public void evict(Long itemId) {
+        afterCommit(() -> {
+            synchronized (items) {
+                modifications++;
+                items.remove(itemId);
+            }
+        });
+    }
+
+    // удаление пользователя каскадом удаляет его вещи и бронирования на любых вещах: индекс строится заново по запросам
+    public void evictAll() {
+        afterCommit(() -> {
+            synchronized (items) {
+                modifications++;
+                items.clear();
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (items) {
+            return items.size();
+        }
+    }
+
+    // slot == null удаляет бронирование из интервалов вещи
+    private void update(Long itemId, Long bookingId, BookingSlotDto slot) {
+        synchronized (items) {
+            modifications++;
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                items.put(itemId, intervals.with(bookingId, slot));
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ItemBookings {
+        // флаг available вещи: недоступную вещь нельзя забронировать ни на какой период
+        private final boolean itemAvailable;
+        // подтверждённые и ожидающие бронирования, пересекающиеся с периодом, в порядке начала
+        private final List<BookingSlotDto> bookings;
+    }
+
+    // неизменяемый снимок: изменение создаёт новый массив, чтение идёт без блокировки
+    private static class ItemIntervals {
+        private final BookingSlotDto[] slots;
+        // maxEnds[i] - наибольшее окончание среди slots[0..i]
+        private final LocalDateTime[] maxEnds;
+        private final LocalDateTime loadedAfter;
+        private final boolean itemAvailable;
+
+        ItemIntervals(List<BookingSlotDto> sortedByStart, LocalDateTime loadedAfter, boolean itemAvailable) {
+            this.slots = sortedByStart.toArray(new BookingSlotDto[0]);
+            this.maxEnds = new LocalDateTime[slots.length];
+            this.loadedAfter = loadedAfter;
+            this.itemAvailable = itemAvailable;
+            for (int i = 0; i < slots.length; i++) {
+                LocalDateTime end = slots[i].getEnd();
+                maxEnds[i] = i > 0 && maxEnds[i - 1].isAfter(end) ? maxEnds[i - 1] : end;
+            }
+        }
+
+        // кандидаты - интервалы с началом раньше to; их обход идёт к началу массива, пока максимум окончаний позже from
+        List<BookingSlotDto> overlapping(LocalDateTime from, LocalDateTime to) {
+            List<BookingSlotDto> found = new ArrayList<>();
+            for (int i = firstStartingAtOrAfter(to) - 1; i >= 0 && maxEnds[i].isAfter(from); i--) {
+                if (slots[i].getEnd().isAfter(from)) {
+                    found.add(slots[i]);
+                }
+            }
+            Collections.reverse(found);
+            return found;
+        }
+
+        BookingSlotDto find(Long bookingId) {
+            for (BookingSlotDto slot : slots) {
+                if (slot.getId().equals(bookingId)) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+
+        ItemIntervals with(Long bookingId, BookingSlotDto slot) {
+            List<BookingSlotDto> updated = new ArrayList<>(slots.length + 1);
+            for (BookingSlotDto existing : slots) {
+                if (!existing.getId().equals(bookingId)) {
+                    updated.add(existing);
+                }
+            }
+            if (slot != null) {
+                updated.add(firstStartingAtOrAfter(updated, slot.getStart()), slot);
+            }
+            return new ItemIntervals(updated, loadedAfter, itemAvailable);
+        }
+
+        private int firstStartingAtOrAfter(LocalDateTime time) {
+            return firstStartingAtOrAfter(Arrays.asList(slots), time);
+        }
+
+        private static int firstStartingAtOrAfter(List<BookingSlotDto> sorted, LocalDateTime time) {
+            int low = 0;
+            int high = sorted.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sorted.get(middle).getStart().isBefore(time)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковое чтение вещей для пакетного импорта: JSON-массив или NDJSON (по объекту на строку).
+ * В памяти держится только текущий объект, поэтому размер импорта не ограничен размером тела запроса.
+ * Объект с неверными полями становится строкой с ошибкой; синтаксически некорректный JSON завершает чтение.
+ */
+public class ItemBatchReader implements Iterable<ItemBatchReader.Row>, Closeable {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean started;
+    private boolean inArray;
+    private boolean finished;
+    private int rowNumber;
+
+    public ItemBatchReader(ObjectMapper objectMapper, InputStream body) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.createParser(body);
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<>() {
+            private Row next = readNext();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Row next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Row current = next;
+                next = readNext();
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    // null - данные закончились
+    private Row readNext() {
+        if (finished) {
+            return null;
+        }
+        // ошибка синтаксиса относится к строке, которая начинается или читается сейчас
+        int number = rowNumber + 1;
+        try {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                inArray = token == JsonToken.START_ARRAY;
+                if (inArray) {
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                finished = true;
+                return null;
+            }
+            rowNumber = number;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new Row(number, null, "Ожидался JSON-объект вещи.");
+            }
+            JsonNode node = objectMapper.readTree(parser);
+            try {
+                return new Row(number, objectMapper.treeToValue(node, ItemDto.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(number, null, "Некорректные поля вещи: " + e.getOriginalMessage());
+            }
+        } catch (IOException e) {
+            finished = true;
+            String message = e instanceof JsonProcessingException
+                    ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+            return new Row(number, null, "Некорректный JSON, импорт остановлен: " + message);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Row {
+        private final int number;
+        private final ItemDto item;
+        private final String error;
+    }
+}
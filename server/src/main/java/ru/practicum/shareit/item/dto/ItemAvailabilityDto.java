@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.shareit.util.Constants.DATE_TIME_FORMAT;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+    Long itemId;
+    @JsonFormat(pattern = DATE_TIME_FORMAT)
+    LocalDateTime from;
+    @JsonFormat(pattern = DATE_TIME_FORMAT)
+    LocalDateTime to;
+    // период свободен, если вещь доступна и с периодом не пересекается ни одно подтверждённое бронирование
+    Boolean available;
+    // подтверждённые и ожидающие бронирования, пересекающиеся с периодом, в порядке начала
+    List<BookingSlotDto> bookings;
+}
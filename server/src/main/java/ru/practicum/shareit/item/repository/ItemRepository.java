@@ -2,19 +2,47 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findItemByOwner_IdIs(Long ownerId, Pageable pageable);
 
-    List<Item> findItemByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(String text1,
-                                                                               String text2,
-                                                                               Pageable pageable);
+    @Query("select i.id from Item i where i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // форма условия совпадает с триграммными индексами по lower(item_name) и lower(description) в Postgres
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like lower(concat('%', :text, '%')) escape '\\' " +
+            "or lower(i.description) like lower(concat('%', :text, '%')) escape '\\')")
+    List<Item> searchAvailableByText(@Param("text") String text, Pageable pageable);
 
     List<Item> findAllByRequest_IdIn(List<Long> requestIds);
+
+    // блокировка строк вещей на время подтверждения бронирований: сериализует только решения по тем же вещам;
+    // порядок по id исключает взаимоблокировки между пачками
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i left join i.request r where i.available = true")
+    Stream<ItemDto> streamAvailableItems();
 }
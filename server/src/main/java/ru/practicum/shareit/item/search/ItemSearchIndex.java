@@ -0,0 +1,368 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.util.TransactionUtils.afterCommit;
+
+/**
+ * Триграммный индекс доступных вещей в памяти: триграмма названия/описания -> отсортированные id вещей.
+ * Триграммы берутся внутри токенов - непрерывных последовательностей букв и цифр. Запрос из одного токена
+ * длиной от трёх символов находит те же вещи, что и поиск подстроки в БД: кандидаты - пересечение списков
+ * триграмм запроса, каждый кандидат проверяется поиском подстроки в его тексте.
+ * Более короткие запросы, как и в pg_trgm, индексом не обслуживаются и уходят в БД.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    // оценки размеров объектов 64-битной JVM со сжатыми указателями
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long OBJECT_BYTES = 32;
+    private static final long STRING_BYTES = 40;
+    private static final long MAP_ENTRY_BYTES = 48;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LongPostings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    // изменения, закоммиченные во время перестройки: поток вещей читает снимок БД и может вернуть вещь
+    // в состоянии до них, поэтому после загрузки они применяются поверх снимка. null - вещь удалена
+    private final Map<Long, ItemDto> changedDuringRebuild = new HashMap<>();
+    private boolean rebuilding;
+    // пока индекс не построен или перестраивается, canSearch отправляет поиск в БД
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        if (enabled) {
+            Gauge.builder("shareit.search.index.items", this, ItemSearchIndex::size)
+                    .description("Количество вещей в поисковом индексе")
+                    .register(meterRegistry);
+            Gauge.builder("shareit.search.index.memory", this, ItemSearchIndex::estimateMemoryBytes)
+                    .description("Оценка памяти, занятой поисковым индексом")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("shareit.search.index.memory.per.item", this, ItemSearchIndex::estimateMemoryBytesPerItem)
+                    .description("Оценка памяти поискового индекса на одну вещь")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            changedDuringRebuild.clear();
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean built = false;
+        try (Stream<ItemDto> items = itemRepository.streamAvailableItems()) {
+            items.forEach(this::load);
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    changedDuringRebuild.forEach((itemId, item) -> {
+                        if (item == null) {
+                            removeDocument(itemId);
+                        } else {
+                            putDocument(item);
+                        }
+                    });
+                }
+                changedDuringRebuild.clear();
+                rebuilding = false;
+                ready = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Поисковый индекс построен: {} вещей, {} триграмм.", size(), trigramsCount());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean canSearch(String text) {
+        return enabled && ready && text.length() >= GRAM && text.chars().allMatch(Character::isLetterOrDigit);
+    }
+
+    public List<ItemDto> search(String text, int offset, int limit) {
+        if (text.length() < GRAM || !text.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Запрос '" + text + "' не ищется по индексу, см. canSearch.");
+        }
+        String query = text.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            List<LongPostings> lists = new ArrayList<>();
+            for (String trigram : trigrams(query)) {
+                LongPostings ids = postings.get(trigram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            // пересечение начинается с самого короткого списка, остальные проверяются двоичным поиском
+            lists.sort(Comparator.comparingInt(ids -> ids.size));
+            LongPostings shortest = lists.get(0);
+            List<ItemDto> page = new ArrayList<>(Math.min(limit, shortest.size));
+            int skipped = 0;
+            for (int i = 0; i < shortest.size && page.size() < limit; i++) {
+                long id = shortest.ids[i];
+                if (!containsInAll(lists, id)) {
+                    continue;
+                }
+                Document document = documents.get(id);
+                // общие триграммы не гарантируют подстроку: "абваб абг" содержит все триграммы "абвабг"
+                if (!document.text.contains(query)) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                page.add(document.item);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // изменения вещей применяются после коммита: поиск отвечает из индекса без БД и не должен видеть откаченных
+    public void index(ItemDto item) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> put(item));
+    }
+
+    public void remove(Long itemId) {
+        remove(List.of(itemId));
+    }
+
+    // вещи, удалённые каскадом вместе с владельцем
+    public void remove(Collection<Long> itemIds) {
+        if (!enabled || itemIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Long itemId : itemIds) {
+                    if (rebuilding) {
+                        changedDuringRebuild.put(itemId, null);
+                    }
+                    removeDocument(itemId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map.Entry<String, LongPostings> entry : postings.entrySet()) {
+                bytes += MAP_ENTRY_BYTES + stringBytes(entry.getKey())
+                        + OBJECT_BYTES + ARRAY_HEADER_BYTES + (long) Long.BYTES * entry.getValue().ids.length;
+            }
+            for (Document document : documents.values()) {
+                ItemDto item = document.item;
+                bytes += MAP_ENTRY_BYTES + OBJECT_BYTES + OBJECT_BYTES + OBJECT_BYTES
+                        + stringBytes(item.getName()) + stringBytes(item.getDescription())
+                        + stringBytes(document.text);
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double estimateMemoryBytesPerItem() {
+        int size = size();
+        return size == 0 ? 0 : (double) estimateMemoryBytes() / size;
+    }
+
+    private int trigramsCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // вещь из БД при перестройке
+    private void load(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            putDocument(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // закоммиченное изменение вещи
+    private void put(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                changedDuringRebuild.put(item.getId(), item);
+            }
+            putDocument(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putDocument(ItemDto item) {
+        removeDocument(item.getId());
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            Document document = new Document(item, text(item));
+            documents.put(item.getId(), document);
+            for (String trigram : trigrams(document.text)) {
+                postings.computeIfAbsent(trigram, t -> new LongPostings()).add(item.getId());
+            }
+        }
+    }
+
+    private void removeDocument(Long itemId) {
+        Document old = documents.remove(itemId);
+        if (old == null) {
+            return;
+        }
+        for (String trigram : trigrams(old.text)) {
+            LongPostings ids = postings.get(trigram);
+            if (ids != null && ids.remove(itemId) && ids.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static boolean containsInAll(List<LongPostings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            LongPostings ids = lists.get(i);
+            if (Arrays.binarySearch(ids.ids, 0, ids.size, id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // перевод строки не буква и не цифра, поэтому запрос не найдётся на стыке названия и описания
+    private static String text(ItemDto item) {
+        String name = item.getName() == null ? "" : item.getName();
+        String description = item.getDescription() == null ? "" : item.getDescription();
+        return (name + "\n" + description).toLowerCase(Locale.ROOT);
+    }
+
+    // триграммы каждого токена текста; токены короче трёх символов триграмм не дают
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                for (int from = start; from + GRAM <= i; from++) {
+                    trigrams.add(text.substring(from, from + GRAM));
+                }
+                start = -1;
+            }
+        }
+        return trigrams;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : STRING_BYTES + (long) s.length() * Character.BYTES;
+    }
+
+    @RequiredArgsConstructor
+    private static class Document {
+        private final ItemDto item;
+        // название и описание в нижнем регистре для проверки кандидатов
+        private final String text;
+    }
+
+    // отсортированный список id вещей на примитивах, без упаковки в Long
+    private static class LongPostings {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -2,9 +2,13 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentResponseDto;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,6 +16,8 @@ public interface ItemService {
 
     ItemDto saveItem(ItemDto itemDto, Long userId, Long requestId);
 
+    ItemBatchResultDto saveItems(Long userId, Iterable<ItemBatchReader.Row> rows);
+
     ItemDto updateItem(ItemDto itemDto, Long itemId, Long userId);
 
     void deleteItem(Long itemId);
@@ -20,6 +26,8 @@ public interface ItemService {
 
     List<ItemBookingCommentDto> getOwnerItems(Long ownerId, Integer from, Integer size);
 
+    ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> findAvailableItemsByText(String text, Integer from, Integer size);
 
     CommentResponseDto addComment(CommentDto dto, Long itemId, Long userId);
@@ -2,9 +2,16 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.BookingBookerDto;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.mapper.BookingDtoMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
@@ -18,26 +25,45 @@ import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.OperationAccessException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemBatchRowDto;
 import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    // кратно hibernate.jdbc.batch_size
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
@@ -46,16 +72,23 @@ public class ItemServiceImpl implements ItemService {
     private final ItemDtoMapper itemMapper;
     private final BookingDtoMapper bookingMapper;
     private final CommentResponseDtoMapper commentMapper;
+    private final ItemSearchIndex searchIndex;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transactionTemplate;
 
+    @Transactional
     @Override
     public ItemDto saveItem(ItemDto itemDto, Long userId) {
         User user = checkUserExistAndGet(userId);
         Item item = itemMapper.toItem(itemDto);
         item.setOwner(user);
         log.info("Вещь {} создана.", item);
-        return itemMapper.toItemDto(itemRepository.save(item));
+        ItemDto savedItem = itemMapper.toItemDto(itemRepository.save(item));
+        searchIndex.index(savedItem);
+        return savedItem;
     }
 
+    @Transactional
     @Override
     public ItemDto saveItem(ItemDto itemDto, Long userId, Long requestId) {
         User user = checkUserExistAndGet(userId);
@@ -64,9 +97,47 @@ public class ItemServiceImpl implements ItemService {
         item.setOwner(user);
         item.setRequest(request);
         log.info("Вещь {} создана.", item);
-        return itemMapper.toItemDto(itemRepository.save(item));
+        ItemDto savedItem = itemMapper.toItemDto(itemRepository.save(item));
+        searchIndex.index(savedItem);
+        return savedItem;
+    }
+
+    // владелец проверяется один раз; вещи сохраняются порциями, каждая в своей транзакции и JDBC batch'ами.
+    // Ошибка порции не прерывает импорт: её строки откатываются и помечаются ошибкой, сохранённые раньше и позже
+    // порции остаются в ответе с id, так что по ответу видно, какие вещи записаны
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public ItemBatchResultDto saveItems(Long userId, Iterable<ItemBatchReader.Row> rows) {
+        checkUserExistAndGet(userId);
+        List<ItemBatchRowDto> results = new ArrayList<>();
+        List<ItemBatchReader.Row> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        // id запроса -> существует ли запрос, чтобы не проверять один запрос для каждой вещи
+        Map<Long, Boolean> requests = new HashMap<>();
+        for (ItemBatchReader.Row row : rows) {
+            String error;
+            try {
+                error = row.getError() != null ? row.getError() : validateBatchItem(row.getItem(), requests);
+            } catch (DataAccessException e) {
+                error = "Вещь не проверена: " + e.getMostSpecificCause().getMessage();
+            }
+            if (error != null) {
+                results.add(new ItemBatchRowDto(row.getNumber(), null, error));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                saveItemsChunk(userId, chunk, results);
+                chunk.clear();
+            }
+        }
+        saveItemsChunk(userId, chunk, results);
+        results.sort(Comparator.comparing(ItemBatchRowDto::getRow));
+        int created = (int) results.stream().filter(result -> result.getId() != null).count();
+        log.info("Пакетный импорт вещей пользователя с id = {}: создано {} из {}.", userId, created, results.size());
+        return new ItemBatchResultDto(results.size(), created, results.size() - created, results);
     }
 
+    @Transactional
     @Override
     public ItemDto updateItem(ItemDto itemDto, Long itemId, Long userId) {
         Item updateItem = checkItemExistAndGet(itemId);
@@ -76,15 +147,23 @@ public class ItemServiceImpl implements ItemService {
         }
         updateItem.setName(itemDto.getName() != null ? itemDto.getName() : updateItem.getName());
         updateItem.setDescription(itemDto.getDescription() != null ? itemDto.getDescription() : updateItem.getDescription());
-        updateItem.setAvailable(itemDto.getAvailable() != null ? itemDto.getAvailable() : updateItem.getAvailable());
+        if (itemDto.getAvailable() != null && !itemDto.getAvailable().equals(updateItem.getAvailable())) {
+            updateItem.setAvailable(itemDto.getAvailable());
+            availabilityIndex.evict(itemId);
+        }
         log.info("Вещь {} обновлена.", updateItem);
-        return itemMapper.toItemDto(itemRepository.save(updateItem));
+        ItemDto savedItem = itemMapper.toItemDto(itemRepository.save(updateItem));
+        searchIndex.index(savedItem);
+        return savedItem;
     }
 
+    @Transactional
     @Override
     public void deleteItem(Long itemId) {
         Item item = checkItemExistAndGet(itemId);
         itemRepository.delete(item);
+        searchIndex.remove(itemId);
+        availabilityIndex.evict(itemId);
         log.info("Вещь с id = {} удалена.", itemId);
     }
 
@@ -94,7 +173,11 @@ public class ItemServiceImpl implements ItemService {
         checkUserExistAndGet(userId);
         ItemBookingCommentDto itemDto;
         if (item.getOwner().getId().equals(userId)) {
-            itemDto = itemMapper.toItemWithBookings(item, getItemLastBooking(itemId), getItemNextBooking(itemId));
+            LocalDateTime now = LocalDateTime.now();
+            List<ItemBookingView> lastAndNext = bookingRepository.findLastAndNextBookingsByItemIds(List.of(itemId),
+                    now, Status.APPROVED.name());
+            itemDto = itemMapper.toItemWithBookings(item, getLastBookings(lastAndNext, now).get(itemId),
+                    getNextBookings(lastAndNext, now).get(itemId));
             itemDto.setComments(getItemComments(itemId));
             return itemDto;
         }
@@ -108,11 +191,24 @@ public class ItemServiceImpl implements ItemService {
         checkUserExistAndGet(ownerId);
         List<Item> items = itemRepository.findItemByOwner_IdIs(ownerId,
                 PageRequest.of((int) from / size, size));
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        // мапы id вещи -> последнее/следующее подтверждённое бронирование и комментарии, по одному запросу на страницу
+        List<ItemBookingView> lastAndNext = bookingRepository.findLastAndNextBookingsByItemIds(itemIds, now,
+                Status.APPROVED.name());
+        Map<Long, BookingBookerDto> lastBookings = getLastBookings(lastAndNext, now);
+        Map<Long, BookingBookerDto> nextBookings = getNextBookings(lastAndNext, now);
+        Map<Long, List<CommentResponseDto>> comments = commentRepository.findByItem_IdIn(itemIds).stream()
+                .collect(groupingBy(comment -> comment.getItem().getId(),
+                        mapping(commentMapper::toCommentResponseDto, toList())));
         List<ItemBookingCommentDto> itemsDto = items.stream()
                 .map(item -> {
-                    ItemBookingCommentDto dto = itemMapper.toItemWithBookings(item, getItemLastBooking(item.getId()),
-                            getItemNextBooking(item.getId()));
-                    dto.setComments(getItemComments(item.getId()));
+                    ItemBookingCommentDto dto = itemMapper.toItemWithBookings(item, lastBookings.get(item.getId()),
+                            nextBookings.get(item.getId()));
+                    dto.setComments(comments.getOrDefault(item.getId(), List.of()));
                     return dto;
                 })
                 .sorted(Comparator.comparing(ItemBookingCommentDto::getId))
@@ -121,17 +217,40 @@ public class ItemServiceImpl implements ItemService {
         return itemsDto;
     }
 
+    // вещь из индекса отвечает без транзакции и соединения с БД: удалённые вещи вытесняются из индекса, поэтому
+    // наличие вещи проверяется только при промахе. Промах читается в пишущей транзакции: при маршрутизации
+    // на реплики она идёт на основную БД, и отставшая реплика не попадает в долгоживущий индекс
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше окончания.");
+        }
+        ItemAvailabilityIndex.ItemBookings itemBookings = availabilityIndex.findOverlapping(itemId, from, to)
+                .orElseGet(() -> transactionTemplate.execute(status -> availabilityIndex.load(itemId, from, to,
+                        () -> checkItemExistAndGet(itemId).getAvailable())));
+        List<BookingSlotDto> bookings = itemBookings.getBookings();
+        // addBooking отклоняет недоступную вещь, поэтому она не свободна ни в какой период
+        boolean available = itemBookings.isItemAvailable()
+                && bookings.stream().noneMatch(slot -> slot.getStatus().equals(Status.APPROVED));
+        return new ItemAvailabilityDto(itemId, from, to, available, bookings);
+    }
+
     @Override
     public List<ItemDto> findAvailableItemsByText(String text, Integer from, Integer size) {
+        if (searchIndex.canSearch(text)) {
+            return searchIndex.search(text, from / size * size, size);
+        }
         return itemMapper.toItemDtoList(
-                itemRepository.findItemByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(text, text,
+                itemRepository.searchAvailableByText(escapeLikePattern(text),
                         PageRequest.of((int) from / size, size)));
     }
 
+    @Transactional
     @Override
     public CommentResponseDto addComment(CommentDto dto, Long itemId, Long userId) {
-        Booking booking = bookingRepository.findFirst1ByBookerIdAndItem_IdAndEndIsBeforeAndStatus(userId, itemId,
-                LocalDateTime.now(), Status.APPROVED).orElseThrow(
+        Booking booking = bookingRepository.findBookerPastItemBookings(userId, itemId, LocalDateTime.now(),
+                Status.APPROVED, PageRequest.of(0, 1)).stream().findFirst().orElseThrow(
                 () -> new BadRequestException("Пользователь с id = " + userId + " не арендовал вещь."));
         User author = booking.getBooker();
         Item item = booking.getItem();
@@ -139,6 +258,63 @@ public class ItemServiceImpl implements ItemService {
         return commentMapper.toCommentResponseDto(comment);
     }
 
+    private void saveItemsChunk(Long userId, List<ItemBatchReader.Row> chunk, List<ItemBatchRowDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ItemDto> savedItems;
+        try {
+            savedItems = transactionTemplate.execute(status -> {
+                User owner = userRepository.getReferenceById(userId);
+                List<Item> items = chunk.stream()
+                        .map(row -> {
+                            Item item = itemMapper.toItem(row.getItem());
+                            item.setId(null);
+                            item.setOwner(owner);
+                            Long requestId = row.getItem().getRequestId();
+                            item.setRequest(requestId == null ? null : requestRepository.getReferenceById(requestId));
+                            return item;
+                        })
+                        .collect(toList());
+                return itemMapper.toItemDtoList(itemRepository.saveAll(items));
+            });
+        } catch (RuntimeException e) {
+            // не только ошибки SQL: сбой коммита (TransactionException) тоже откатывает всю порцию
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Порция из {} вещей (строки {}-{}) не сохранена: {}", chunk.size(), chunk.get(0).getNumber(),
+                    chunk.get(chunk.size() - 1).getNumber(), message);
+            chunk.forEach(row -> results.add(new ItemBatchRowDto(row.getNumber(), null,
+                    "Вещь не сохранена: " + message)));
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            ItemDto savedItem = savedItems.get(i);
+            searchIndex.index(savedItem);
+            results.add(new ItemBatchRowDto(chunk.get(i).getNumber(), savedItem.getId(), null));
+        }
+    }
+
+    // те же ограничения, что проверяет шлюз для одиночной вещи
+    private String validateBatchItem(ItemDto item, Map<Long, Boolean> requests) {
+        if (item.getName() == null || item.getName().isBlank()) {
+            return "Название не может быть пустым";
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return "Описание не может быть пустым";
+        }
+        if (item.getDescription().length() > 200) {
+            return "Максимальная длина описания — 200 символов";
+        }
+        if (item.getAvailable() == null) {
+            return "Не указана доступность вещи";
+        }
+        Long requestId = item.getRequestId();
+        if (requestId != null && !requests.computeIfAbsent(requestId, requestRepository::existsById)) {
+            return "Запрос с id = " + requestId + " не найден.";
+        }
+        return null;
+    }
+
     private Item checkItemExistAndGet(Long itemId) {
         return itemRepository.findById(itemId).orElseThrow(
                 () -> new ItemNotFoundException("Вещь с id = " + itemId + " не найдена."));
@@ -154,16 +330,22 @@ public class ItemServiceImpl implements ItemService {
                 () -> new UserNotFoundException("Запрос с id = " + requestId + " не найден."));
     }
 
-    private BookingBookerDto getItemLastBooking(Long itemId) {
-        return bookingMapper.toBookingBookerDto(
-                bookingRepository.findFirst1ByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                        itemId, LocalDateTime.now(), Status.APPROVED));
+    private String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private Map<Long, BookingBookerDto> getLastBookings(List<ItemBookingView> lastAndNext, LocalDateTime now) {
+        return lastAndNext.stream()
+                .filter(view -> !view.getStartDate().isAfter(now))
+                .collect(toMap(ItemBookingView::getItemId, bookingMapper::toBookingBookerDto));
     }
 
-    private BookingBookerDto getItemNextBooking(Long itemId) {
-        return bookingMapper.toBookingBookerDto(
-                bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        itemId, LocalDateTime.now(), Status.APPROVED));
+    private Map<Long, BookingBookerDto> getNextBookings(List<ItemBookingView> lastAndNext, LocalDateTime now) {
+        return lastAndNext.stream()
+                .filter(view -> view.getStartDate().isAfter(now))
+                .collect(toMap(ItemBookingView::getItemId, bookingMapper::toBookingBookerDto));
     }
 
     private List<CommentResponseDto> getItemComments(Long itemId) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,12 +11,14 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.request.dto.ItemRequestCursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
 
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
 
 @RestController
@@ -41,12 +44,22 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestResponseDto> getAllRequests(@RequestHeader(REQUEST_HEADER) Long userId,
-                                                       @RequestParam(defaultValue = "0") Integer from,
-                                                       @RequestParam(defaultValue = "20") Integer size) {
+    public ResponseEntity<List<ItemRequestResponseDto>> getAllRequests(
+            @RequestHeader(REQUEST_HEADER) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("Получен GET-запрос к эндпоинту: /requests/all/ на получение списка всех запросов на добавление вещей" +
                 "пользователем с id = {} .", userId);
-        return itemRequestService.getAllRequests(userId, from, size);
+        if (cursor != null) {
+            ItemRequestCursorPage page = itemRequestService.getAllRequestsByCursor(userId, cursor, size);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getRequests());
+        }
+        return ResponseEntity.ok(itemRequestService.getAllRequests(userId, from, size));
     }
 
     @GetMapping("/{requestId}")
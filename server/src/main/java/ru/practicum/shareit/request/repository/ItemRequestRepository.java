@@ -2,12 +2,23 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long requesterId);
 
     List<ItemRequest> findAllByRequesterIdNot(Long requesterId, Pageable pageable);
-}
\ No newline at end of file
+
+    // keyset-пагинация: следующая страница начинается строго после (created, id) последнего запроса
+    @Query("select r from ItemRequest r where r.requester.id <> :userId " +
+            "and (r.created < :created or (r.created = :created and r.id < :id)) order by r.created desc, r.id desc")
+    List<ItemRequest> findOthersRequestsAfter(@Param("userId") Long userId,
+                                              @Param("created") LocalDateTime created,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.request.dto.ItemRequestCursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 
@@ -12,5 +13,7 @@ public interface ItemRequestService {
 
     List<ItemRequestResponseDto> getAllRequests(Long userId, Integer from, Integer size);
 
+    ItemRequestCursorPage getAllRequestsByCursor(Long userId, String cursor, Integer size);
+
     ItemRequestResponseDto getRequestById(Long userId, Long requestId);
 }
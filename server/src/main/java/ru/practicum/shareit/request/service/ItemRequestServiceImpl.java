@@ -6,11 +6,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemForRequestDto;
 import ru.practicum.shareit.item.mapper.ItemDtoMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestCursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.mapper.RequestMapper;
@@ -30,6 +33,7 @@ import static java.util.stream.Collectors.toMap;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
@@ -39,6 +43,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemDtoMapper itemDtoMapper;
 
 
+    @Transactional
     @Override
     public ItemRequestResponseDto addItemRequest(Long userId, ItemRequestShortDto dto) {
         User requester = checkUserExistAndGet(userId);
@@ -61,7 +66,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestResponseDto> getAllRequests(Long userId, Integer from, Integer size) {
-        Sort sortByCreated = Sort.by(Sort.Direction.DESC, "created");
+        // id - второй ключ сортировки: порядок запросов с одинаковым created устойчив между страницами
+        Sort sortByCreated = Sort.by(Sort.Direction.DESC, "created", "id");
         Pageable page = PageRequest.of((int) from / size, size, sortByCreated);
         List<ItemRequest> requests = requestRepository.findAllByRequesterIdNot(userId, page);
         // мапа id запроса -> список вещей, созданных по этому запросу (в формате dto)
@@ -69,6 +75,23 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return mapItemRequestsToItemRequestResponseDto(requests, requestIdMapItemDto);
     }
 
+    @Override
+    public ItemRequestCursorPage getAllRequestsByCursor(Long userId, String cursor, Integer size) {
+        ItemRequestCursor after = ItemRequestCursor.decode(cursor);
+        // лишняя строка показывает, есть ли следующая страница, в ответ она не попадает
+        List<ItemRequest> requests = requestRepository.findOthersRequestsAfter(userId, after.getCreated(),
+                after.getId(), PageRequest.of(0, size + 1));
+        String nextCursor = null;
+        if (requests.size() > size) {
+            requests = requests.subList(0, size);
+            nextCursor = ItemRequestCursor.of(requests.get(size - 1)).encode();
+        }
+        // мапа id запроса -> список вещей, созданных по этому запросу (в формате dto)
+        Map<Long, ItemForRequestDto> requestIdMapItemDto = getItemsMadeForRequests(requests);
+        return new ItemRequestCursorPage(mapItemRequestsToItemRequestResponseDto(requests, requestIdMapItemDto),
+                nextCursor);
+    }
+
     @Override
     public ItemRequestResponseDto getRequestById(Long userId, Long requestId) {
         checkUserExistAndGet(userId);
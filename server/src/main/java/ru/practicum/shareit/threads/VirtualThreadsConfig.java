@@ -0,0 +1,40 @@
+package ru.practicum.shareit.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Включается свойством {@code shareit.threads.virtual=true} и требует Java 21 (профиль сборки {@code java21}):
+ * каждый HTTP-запрос Tomcat обрабатывается в своём виртуальном потоке, поэтому блокирующие вызовы
+ * в обработке запроса не занимают потоки платформы.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Запросы обрабатываются в виртуальных потоках.");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // через отражение: без профиля java21 модуль компилируется под Java 11, где этого метода нет
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("shareit.threads.virtual=true требует Java 21, запущено на Java "
+                    + Runtime.version().feature() + ".", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель виртуальных потоков.", e);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import static ru.practicum.shareit.util.Constants.USER_EXISTS_CACHE;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // кэшируются только существующие пользователи, запись удаляется в UserServiceImpl.deleteUser.
+    // Удаление на другом экземпляре сервера этот кэш не очищает: ответ устаревает не дольше TTL
+    // из spring.cache.caffeine.spec
+    @Cacheable(cacheNames = USER_EXISTS_CACHE, unless = "!#result")
+    boolean existsById(Long id);
 }
@@ -2,9 +2,13 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
@@ -12,6 +16,8 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
 
+import static ru.practicum.shareit.util.Constants.USER_EXISTS_CACHE;
+
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -19,6 +25,9 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserDtoMapper userDtoMapper;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ItemAvailabilityIndex availabilityIndex;
 
     @Transactional
     @Override
@@ -44,9 +53,14 @@ public class UserServiceImpl implements UserService {
 
     @Transactional
     @Override
+    @CacheEvict(cacheNames = USER_EXISTS_CACHE, key = "#userId")
     public void deleteUser(Long userId) {
         User user = checkUserExistAndGet(userId);
+        // вещи пользователя удаляются каскадом в БД, из поискового индекса - после коммита
+        List<Long> itemIds = searchIndex.isEnabled() ? itemRepository.findIdsByOwnerId(userId) : List.of();
         userRepository.delete(user);
+        searchIndex.remove(itemIds);
+        availabilityIndex.evictAll();
         log.info("Пользователь с id = {} успешно удалён.", userId);
     }
 
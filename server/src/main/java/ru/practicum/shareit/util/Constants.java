@@ -3,5 +3,9 @@ package ru.practicum.shareit.util;
 public class Constants {
     public static final String REQUEST_HEADER = "X-Sharer-User-Id";
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String USER_EXISTS_CACHE = "userExists";
+
     public static final String DATE_TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
 }
\ No newline at end of file
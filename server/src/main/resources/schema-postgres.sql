@@ -0,0 +1,17 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- поиск возвращает только доступные вещи, поэтому индексируются только они
+create index if not exists IDX_ITEMS_NAME_TRGM on ITEMS using gin (lower(ITEM_NAME) gin_trgm_ops)
+    where AVAILABLE = true;
+
+create index if not exists IDX_ITEMS_DESCRIPTION_TRGM on ITEMS using gin (lower(DESCRIPTION) gin_trgm_ops)
+    where AVAILABLE = true;
+
+-- подтверждённые бронирования одной вещи не пересекаются; колонки без часового пояса, поэтому tsrange.
+-- у add constraint нет if not exists, поэтому при каждом старте ограничение пересоздаётся
+alter table BOOKINGS drop constraint if exists EX_BOOKINGS_ITEM_APPROVED_OVERLAP;
+
+alter table BOOKINGS add constraint EX_BOOKINGS_ITEM_APPROVED_OVERLAP
+    exclude using gist (ITEM_ID with =, tsrange(START_DATE, END_DATE) with &&)
+    where (BOOKING_STATUS = 'APPROVED');
@@ -3,10 +3,22 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS item_requests CASCADE;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+
+-- шаг 50 совпадает с allocationSize сущностей: Hibernate выдаёт id блоками (pooled) и может группировать insert'ы
+create sequence if not exists USERS_SEQ start with 1 increment by 50;
+create sequence if not exists REQUESTS_SEQ start with 1 increment by 50;
+create sequence if not exists ITEMS_SEQ start with 1 increment by 50;
+create sequence if not exists COMMENTS_SEQ start with 1 increment by 50;
+create sequence if not exists BOOKINGS_SEQ start with 1 increment by 50;
 
 create table if not exists USERS
 (
-    USER_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    USER_ID BIGINT DEFAULT nextval('users_seq') NOT NULL,
     NAME    CHARACTER VARYING(40) not null,
     EMAIL   CHARACTER VARYING(64) not null,
     constraint UQ_USER_EMAIL unique (EMAIL),
@@ -16,7 +28,7 @@ create table if not exists USERS
 
 create table if not exists REQUESTS
 (
-    REQUEST_ID   BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    REQUEST_ID   BIGINT DEFAULT nextval('requests_seq') NOT NULL,
     DESCRIPTION  CHARACTER VARYING(255) not null,
     REQUESTER_ID BIGINT not null,
     CREATED      TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW() not null,
@@ -28,7 +40,7 @@ create table if not exists REQUESTS
 
 create table if not exists ITEMS
 (
-    ITEM_ID     BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    ITEM_ID     BIGINT DEFAULT nextval('items_seq') NOT NULL,
     ITEM_NAME   CHARACTER VARYING(128) not null,
     DESCRIPTION CHARACTER VARYING(200) not null,
     AVAILABLE   BOOLEAN                not null,
@@ -42,7 +54,7 @@ create table if not exists ITEMS
 
 create table if not exists COMMENTS
 (
-    COMMENT_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    COMMENT_ID BIGINT DEFAULT nextval('comments_seq') NOT NULL,
     TEXT       CHARACTER VARYING(1024)          not null,
     AUTHOR_ID  BIGINT                           not null,
     ITEM_ID    BIGINT                           not null,
@@ -57,12 +69,13 @@ create table if not exists COMMENTS
 
 create table if not exists BOOKINGS
 (
-    BOOKING_ID     BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    BOOKING_ID     BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
     START_DATE     TIMESTAMP not null,
     END_DATE       TIMESTAMP not null,
     BOOKER_ID      BIGINT    not null,
     ITEM_ID        BIGINT    not null,
     BOOKING_STATUS CHARACTER VARYING(8),
+    VERSION        BIGINT DEFAULT 0 NOT NULL,
     constraint BOOKINGS_PK
         primary key (BOOKING_ID),
     constraint "bookings_ITEMS_ITEM_ID_fk"
@@ -73,3 +86,14 @@ create table if not exists BOOKINGS
         check (START_DATE < BOOKINGS.END_DATE)
 );
 
+create index if not exists IDX_ITEMS_OWNER on ITEMS (OWNER_ID);
+
+create index if not exists IDX_BOOKINGS_BOOKER_START on BOOKINGS (BOOKER_ID, START_DATE DESC);
+
+create index if not exists IDX_BOOKINGS_ITEM_STATUS_START on BOOKINGS (ITEM_ID, BOOKING_STATUS, START_DATE);
+
+create index if not exists IDX_BOOKINGS_BOOKER_STATUS on BOOKINGS (BOOKER_ID, BOOKING_STATUS);
+
+create index if not exists IDX_BOOKINGS_ITEM_START_END on BOOKINGS (ITEM_ID, START_DATE, END_DATE);
+
+create index if not exists IDX_REQUESTS_CREATED_ID on REQUESTS (CREATED DESC, REQUEST_ID DESC);
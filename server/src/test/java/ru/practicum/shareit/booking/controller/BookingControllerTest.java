@@ -11,12 +11,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ShortItemDto;
 import ru.practicum.shareit.user.dto.ShortUserDto;
@@ -39,9 +43,11 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constants.DATE_TIME_FORMAT;
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -193,6 +199,61 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(responseDto.getStatus().toString())));
     }
 
+    @Test
+    void approveBooking_whenConcurrentUpdate_thenStatus409() throws Exception {
+        //given
+        when(bookingService.approveBooking(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ConflictException("conflict message"));
+        //when
+        mvc.perform(patch(PATH + "/{bookingId}", bookingId)
+                        .param("approved", "true")
+                        .header(REQUEST_HEADER, 2L)
+                        .characterEncoding(StandardCharsets.UTF_8))
+                //then
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("conflict message")));
+    }
+
+    @Test
+    void approveBookings_whenListOfIds_thenPerIdOutcomes() throws Exception {
+        //given
+        long ownerId = 2L;
+        BookingApprovalRequestDto approvalDto = new BookingApprovalRequestDto(List.of(1L, 2L), true);
+        when(bookingService.approveBookings(ownerId, List.of(1L, 2L), true)).thenReturn(List.of(
+                BookingApprovalResultDto.builder().bookingId(1L).status(Status.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(2L).error("not waiting").build()));
+        //when
+        mvc.perform(patch(PATH + "/approve")
+                        .header(REQUEST_HEADER, ownerId)
+                        .content(objectMapper.writeValueAsString(approvalDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2)))
+                .andExpect(jsonPath("$[1].error", is("not waiting")));
+        verify(bookingService, never()).approveBooking(anyLong(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void approveBookings_whenIdsEmptyOrDecisionMissing_thenStatus400() throws Exception {
+        for (BookingApprovalRequestDto approvalDto : List.of(
+                new BookingApprovalRequestDto(List.of(), true),
+                new BookingApprovalRequestDto(null, true),
+                new BookingApprovalRequestDto(List.of(1L), null))) {
+            mvc.perform(patch(PATH + "/approve")
+                            .header(REQUEST_HEADER, 2L)
+                            .content(objectMapper.writeValueAsString(approvalDto))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(bookingService, never()).approveBookings(anyLong(), any(), anyBoolean());
+    }
+
     @Test
     void approveBooking_whenPathVariableBookingIdNotProvided_thenStatus500() throws Exception {
         //when
@@ -321,6 +382,47 @@ class BookingControllerTest {
         verify(bookingService, never()).getUserBookings(anyLong(), any(), anyInt(), anyInt());
     }
 
+    @Test
+    void getBookingByBooker_whenCursorProvided_thenNextCursorHeader() throws Exception {
+        //given
+        setupEntityDtos(startBooking, endBooking);
+        when(bookingService.getUserBookingsByCursor(anyLong(), any(), any(), anyInt()))
+                .thenReturn(new BookingCursorPage(List.of(responseDto), "next"));
+        //when
+        mvc.perform(get(PATH)
+                        .header(REQUEST_HEADER, bookerId)
+                        .param("cursor", "cursor")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(responseDto.getId()), Long.class));
+        verify(bookingService).getUserBookingsByCursor(bookerId, BookingState.ALL, "cursor", 1);
+        verify(bookingService, never()).getUserBookings(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getBookingByOwner_whenLastCursorPage_thenNoNextCursorHeader() throws Exception {
+        //given
+        long ownerId = 2L;
+        setupEntityDtos(startBooking, endBooking);
+        when(bookingService.getOwnerBookingsByCursor(anyLong(), any(), any(), anyInt()))
+                .thenReturn(new BookingCursorPage(List.of(responseDto), null));
+        //when
+        mvc.perform(get(PATH + "/owner")
+                        .header(REQUEST_HEADER, ownerId)
+                        .param("state", "past")
+                        .param("cursor", "")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(1)));
+        verify(bookingService).getOwnerBookingsByCursor(ownerId, BookingState.PAST, "", 20);
+    }
+
     @Test
     void getBookingByOwner_whenRequestParamsNotProvided_thenOKAndDefaultValues() throws Exception {
         //given
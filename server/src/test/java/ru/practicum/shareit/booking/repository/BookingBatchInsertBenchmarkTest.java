@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// вставка бронирований построчно (как при IDENTITY, где batch невозможен) и JDBC batch'ами по hibernate.jdbc.batch_size;
+// запуск: mvn -pl server test -Dtest=BookingBatchInsertBenchmarkTest -Dshareit.loadtest=true
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@EnabledIfSystemProperty(named = "shareit.loadtest", matches = "true")
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Slf4j
+class BookingBatchInsertBenchmarkTest {
+    private static final int BOOKINGS_COUNT = Integer.getInteger("shareit.loadtest.bookings", 100_000);
+    private static final int WARMUP_COUNT = 10_000;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final BookingFixture fixture;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        booker = fixture.booker();
+        item = fixture.item();
+    }
+
+    @Test
+    void insertBookings_batchedFasterThanRowByRow() {
+        insertsPerSecond(WARMUP_COUNT, 1);
+        insertsPerSecond(WARMUP_COUNT, null);
+        double rowByRow = insertsPerSecond(BOOKINGS_COUNT, 1);
+        double batched = insertsPerSecond(BOOKINGS_COUNT, null);
+        log.info("Вставка {} бронирований: построчно - {} в секунду, batch'ами - {} в секунду.",
+                BOOKINGS_COUNT, Math.round(rowByRow), Math.round(batched));
+
+        assertThat(batched).isGreaterThan(rowByRow);
+    }
+
+    // batchSize = null - размер из настроек hibernate.jdbc.batch_size
+    private double insertsPerSecond(int count, Integer batchSize) {
+        jdbcTemplate.update("DELETE FROM bookings");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime start = LocalDateTime.now();
+        long begin = System.nanoTime();
+        for (int chunk = 0; chunk < count; chunk += CHUNK_SIZE) {
+            int from = chunk;
+            transaction.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                Item itemReference = entityManager.getReference(Item.class, item.getId());
+                User bookerReference = entityManager.getReference(User.class, booker.getId());
+                for (int i = from; i < Math.min(from + CHUNK_SIZE, count); i++) {
+                    entityManager.persist(Booking.builder()
+                            .start(start.plusMinutes(i))
+                            .end(start.plusMinutes(i + 1))
+                            .item(itemReference)
+                            .booker(bookerReference)
+                            .status(Status.APPROVED)
+                            .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertEquals(count, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        return count * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+import ru.practicum.shareit.util.CapturedSql;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// план строится для SQL, который Hibernate сгенерировал для метода репозитория, а не для копии запроса
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.util.CapturedSql")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingIndexExplainTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+    // условия поиска по индексу в плане H2: /* PUBLIC.<индекс>: <условие> */. Имя индекса не проверяется:
+    // H2 сам создаёт индексы под внешние ключи и выбирает между ними и индексами schema.sql при равной стоимости
+    private static final List<String> BOOKING = List.of("BOOKING_ID = ?");
+    private static final List<String> BOOKING_IDS = List.of("BOOKING_ID IN(");
+    private static final List<String> BOOKER = List.of("BOOKER_ID = ?");
+    private static final List<String> ITEM = List.of("ITEM_ID = ?");
+    private static final List<String> ITEMS = List.of("ITEM_ID IN(");
+    // вещи владельца по OWNER_ID, их бронирования - по ITEM_ID
+    private static final List<String> OWNER = List.of("OWNER_ID = ?", "ITEM_ID = ITEM1_.ITEM_ID");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // все запросы BookingRepository и условия, по которым БД ищет строки в индексах
+    static Stream<Arguments> bookingQueries() {
+        return Stream.of(
+                query("findById", BOOKING,
+                        r -> r.findById(1L)),
+                query("findByBookerIdOrderByStartDesc", BOOKER,
+                        r -> r.findByBookerIdOrderByStartDesc(1L, PAGE)),
+                query("findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc", BOOKER,
+                        r -> r.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(1L, NOW, NOW, PAGE)),
+                query("findByBookerIdAndEndBeforeOrderByStartDesc", BOOKER,
+                        r -> r.findByBookerIdAndEndBeforeOrderByStartDesc(1L, NOW, PAGE)),
+                query("findByBookerIdAndStartAfterOrderByStartDesc", BOOKER,
+                        r -> r.findByBookerIdAndStartAfterOrderByStartDesc(1L, NOW, PAGE)),
+                query("findByBookerIdAndStatusEquals", BOOKER,
+                        r -> r.findByBookerIdAndStatusEquals(1L, Status.WAITING, PAGE)),
+                query("findByItem_OwnerIdOrderByStartDesc", OWNER,
+                        r -> r.findByItem_OwnerIdOrderByStartDesc(1L, PAGE)),
+                query("findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc", OWNER,
+                        r -> r.findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(1L, NOW, NOW, PAGE)),
+                query("findByItem_OwnerIdAndEndBeforeOrderByStartDesc", OWNER,
+                        r -> r.findByItem_OwnerIdAndEndBeforeOrderByStartDesc(1L, NOW, PAGE)),
+                query("findByItem_OwnerIdAndStartAfterOrderByStartDesc", OWNER,
+                        r -> r.findByItem_OwnerIdAndStartAfterOrderByStartDesc(1L, NOW, PAGE)),
+                query("findByItem_OwnerIdAndStatusEquals", OWNER,
+                        r -> r.findByItem_OwnerIdAndStatusEquals(1L, Status.WAITING, PAGE)),
+                query("findBookerBookingsAfter", BOOKER,
+                        r -> r.findBookerBookingsAfter(1L, NOW, 10L, PAGE)),
+                query("findBookerCurrentBookingsAfter", BOOKER,
+                        r -> r.findBookerCurrentBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findBookerPastBookingsAfter", BOOKER,
+                        r -> r.findBookerPastBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findBookerFutureBookingsAfter", BOOKER,
+                        r -> r.findBookerFutureBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findBookerBookingsByStatusAfter", BOOKER,
+                        r -> r.findBookerBookingsByStatusAfter(1L, Status.WAITING, NOW, 10L, PAGE)),
+                query("findOwnerBookingsAfter", OWNER,
+                        r -> r.findOwnerBookingsAfter(1L, NOW, 10L, PAGE)),
+                query("findOwnerCurrentBookingsAfter", OWNER,
+                        r -> r.findOwnerCurrentBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findOwnerPastBookingsAfter", OWNER,
+                        r -> r.findOwnerPastBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findOwnerFutureBookingsAfter", OWNER,
+                        r -> r.findOwnerFutureBookingsAfter(1L, NOW, NOW, 10L, PAGE)),
+                query("findOwnerBookingsByStatusAfter", OWNER,
+                        r -> r.findOwnerBookingsByStatusAfter(1L, Status.WAITING, NOW, 10L, PAGE)),
+                query("findLastAndNextBookingsByItemIds", ITEMS,
+                        r -> r.findLastAndNextBookingsByItemIds(List.of(1L, 2L, 3L), NOW, Status.APPROVED.name())),
+                query("findBookerPastItemBookings", ITEM,
+                        r -> r.findBookerPastItemBookings(1L, 1L, NOW, Status.APPROVED, PageRequest.of(0, 1))),
+                query("existsByItem_IdAndStatusAndStartBeforeAndEndAfter", ITEM,
+                        r -> r.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(1L, Status.APPROVED, NOW, NOW)),
+                query("findIntervalsByItemIdIn", ITEMS,
+                        r -> r.findIntervalsByItemIdIn(List.of(1L, 2L, 3L), Status.APPROVED, NOW, NOW)),
+                query("findSlotsByItemId", ITEM,
+                        r -> r.findSlotsByItemId(1L, List.of(Status.WAITING, Status.APPROVED), NOW)),
+                query("findApprovalViewsByIdIn", BOOKING_IDS,
+                        r -> r.findApprovalViewsByIdIn(List.of(1L, 2L, 3L))),
+                query("lockIdsByIdInAndStatus", BOOKING_IDS,
+                        r -> r.lockIdsByIdInAndStatus(List.of(1L, 2L, 3L), Status.WAITING)),
+                query("updateStatusByIdAndVersion", BOOKING,
+                        r -> r.updateStatusByIdAndVersion(1L, 0L, Status.WAITING, Status.APPROVED)),
+                query("updateStatusByIdInAndStatus", BOOKING_IDS,
+                        r -> r.updateStatusByIdInAndStatus(List.of(1L, 2L, 3L), Status.WAITING, Status.APPROVED))
+        );
+    }
+
+    // данные вставляются один раз на класс, вне транзакций тестов, и удаляются после них
+    @BeforeAll
+    void seed() {
+        new ResourceDatabasePopulator(new ClassPathResource("booking-explain.sql")).execute(dataSource);
+    }
+
+    @AfterAll
+    void cleanup() {
+        new ResourceDatabasePopulator(new ClassPathResource("booking-explain-cleanup.sql")).execute(dataSource);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("bookingQueries")
+    void bookingQueriesUseIndexes(String method, List<String> lookups, Consumer<BookingRepository> query) {
+        CapturedSql.clear();
+        query.accept(bookingRepository);
+
+        String plan = CapturedSql.explain(jdbcTemplate, CapturedSql.last());
+
+        assertThat(plan).as(method).doesNotContainIgnoringCase("tableScan");
+        for (String lookup : lookups) {
+            assertThat(plan).as(method).containsPattern("/\\* PUBLIC\\.[^:*]+: [^*]*" + Pattern.quote(lookup));
+        }
+    }
+
+    @Test
+    void bookingIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name IN ('BOOKINGS', 'ITEMS')",
+                String.class);
+
+        assertThat(indexes).contains(
+                "IDX_ITEMS_OWNER",
+                "IDX_BOOKINGS_BOOKER_START",
+                "IDX_BOOKINGS_ITEM_STATUS_START",
+                "IDX_BOOKINGS_BOOKER_STATUS",
+                "IDX_BOOKINGS_ITEM_START_END");
+    }
+
+    private static Arguments query(String method, List<String> lookups, Consumer<BookingRepository> query) {
+        return Arguments.of(method, lookups, query);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingDtoMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// сравнение памяти, выделяемой на один запрос списка бронирований: сущности + маппер против JPQL-проекции
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@DirtiesContext // сотня бронирований и сдвинутые счётчики id не должны достаться другим тестам
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Slf4j
+class BookingProjectionAllocationTest {
+    private static final int BOOKINGS_COUNT = 100;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private final BookingRepository bookingRepository;
+    private final BookingFixture fixture;
+    private final BookingDtoMapper dtoMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        User owner = fixture.owner();
+        booker = fixture.booker();
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            fixture.addBooking(fixture.addItem(owner, "item" + i), booker,
+                    start.plusDays(i), start.plusDays(i + 1), Status.APPROVED);
+        }
+    }
+
+    @Test
+    void projection_allocatesLessPerRequestThanEntities() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // прежний путь: управляемые сущности с графом, снимки для dirty checking и маппинг в dto
+        Supplier<List<BookingResponseDto>> entities = () -> readWrite.execute(status ->
+                dtoMapper.mapToBookingResponseDtoList(entityManager.createQuery(
+                                "select b from Booking b join fetch b.item i join fetch i.owner join fetch b.booker " +
+                                        "where b.booker.id = :bookerId order by b.start desc", Booking.class)
+                        .setParameter("bookerId", booker.getId())
+                        .setMaxResults(BOOKINGS_COUNT)
+                        .getResultList()));
+        Supplier<List<BookingResponseDto>> projection = () -> readOnly.execute(status ->
+                bookingRepository.findByBookerIdOrderByStartDesc(booker.getId(), PageRequest.of(0, BOOKINGS_COUNT)));
+
+        assertEquals(entities.get(), projection.get());
+        long entityBytes = allocatedBytesPerRequest(entities);
+        long projectionBytes = allocatedBytesPerRequest(projection);
+        log.info("Выделено памяти на запрос {} бронирований: сущности - {} байт, проекция - {} байт.",
+                BOOKINGS_COUNT, entityBytes, projectionBytes);
+
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    private long allocatedBytesPerRequest(Supplier<List<BookingResponseDto>> request) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            request.get();
+        }
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            request.get();
+        }
+        return (threadBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+    }
+}
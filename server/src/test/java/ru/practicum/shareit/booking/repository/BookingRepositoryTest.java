@@ -1,12 +1,18 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repositoty.BookingRepository;
@@ -19,12 +25,15 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingRepositoryTest {
 
     @Autowired
@@ -35,8 +44,12 @@ class BookingRepositoryTest {
 
     @Autowired
     private ItemRepository itemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
     private User owner;
     private User booker;
+    private Item item;
     private Booking booking;
     private final Pageable page = PageRequest.of(0, 10);
     private final LocalDateTime now =
@@ -58,7 +71,7 @@ class BookingRepositoryTest {
 
         userRepository.save(booker);
 
-        Item item = Item.builder()
+        item = Item.builder()
                 .name("Item")
                 .description("description")
                 .owner(owner)
@@ -93,102 +106,280 @@ class BookingRepositoryTest {
 
     @Test
     void findByBookerIdOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository.findByBookerIdOrderByStartDesc(booker.getId(), page);
-        Booking actualBooking = actualBookings.get(0);
+        List<BookingResponseDto> actualBookings = bookingRepository.findByBookerIdOrderByStartDesc(booker.getId(), page);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
     void findByBookerIdAndStartAfterOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
+        List<BookingResponseDto> actualBookings = bookingRepository
                 .findByBookerIdAndStartAfterOrderByStartDesc(booker.getId(), now, page);
-        Booking actualBooking = actualBookings.get(0);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
     void findByBookerIdAndEndBeforeOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
+        List<BookingResponseDto> actualBookings = bookingRepository
                 .findByBookerIdAndEndBeforeOrderByStartDesc(booker.getId(), now.plusYears(1), page);
-        Booking actualBooking = actualBookings.get(0);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
     void findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
+        List<BookingResponseDto> actualBookings = bookingRepository
                 .findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(booker.getId(),
                         now.plusMonths(2), now.plusMonths(1), page);
-        Booking actualBooking = actualBookings.get(0);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
     void findByBookerIdAndStatusEquals() {
-        List<Booking> actualBookings = bookingRepository
+        List<BookingResponseDto> actualBookings = bookingRepository
                 .findByBookerIdAndStatusEquals(booker.getId(), Status.WAITING, page);
-        Booking actualBooking = actualBookings.get(0);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
-    void findByItem_OwnerOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
-                .findByItem_OwnerOrderByStartDesc(owner, page);
-        Booking actualBooking = actualBookings.get(0);
+    void findByItem_OwnerIdOrderByStartDesc() {
+        List<BookingResponseDto> actualBookings = bookingRepository
+                .findByItem_OwnerIdOrderByStartDesc(owner.getId(), page);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
-    void findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
-                .findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(owner, now.plusMonths(2),
+    void findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc() {
+        List<BookingResponseDto> actualBookings = bookingRepository
+                .findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(owner.getId(), now.plusMonths(2),
                         now.plusMonths(1), page);
-        Booking actualBooking = actualBookings.get(0);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
-    void findByItem_OwnerAndEndBeforeOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
-                .findByItem_OwnerAndEndBeforeOrderByStartDesc(owner, now.plusMonths(4), page);
-        Booking actualBooking = actualBookings.get(0);
+    void findByItem_OwnerIdAndEndBeforeOrderByStartDesc() {
+        List<BookingResponseDto> actualBookings = bookingRepository
+                .findByItem_OwnerIdAndEndBeforeOrderByStartDesc(owner.getId(), now.plusMonths(4), page);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
-    void findByItem_OwnerAndStartAfterOrderByStartDesc() {
-        List<Booking> actualBookings = bookingRepository
-                .findByItem_OwnerAndStartAfterOrderByStartDesc(owner, now, page);
-        Booking actualBooking = actualBookings.get(0);
+    void findByItem_OwnerIdAndStartAfterOrderByStartDesc() {
+        List<BookingResponseDto> actualBookings = bookingRepository
+                .findByItem_OwnerIdAndStartAfterOrderByStartDesc(owner.getId(), now, page);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
 
     @Test
-    void findByItem_OwnerAndStatusEquals() {
-        List<Booking> actualBookings = bookingRepository
-                .findByItem_OwnerAndStatusEquals(owner, Status.WAITING, page);
-        Booking actualBooking = actualBookings.get(0);
+    void findByItem_OwnerIdAndStatusEquals() {
+        List<BookingResponseDto> actualBookings = bookingRepository
+                .findByItem_OwnerIdAndStatusEquals(owner.getId(), Status.WAITING, page);
+        BookingResponseDto actualBooking = actualBookings.get(0);
 
-        assertEquals(actualBooking, booking);
+        assertBookingResponse(booking, actualBooking);
         assertThat(actualBookings.size(), is(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLastAndNextBookingsByItemIds() {
+        Booking last = bookingRepository.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .status(Status.APPROVED)
+                .item(item)
+                .booker(booker)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(now.minusDays(4))
+                .end(now.minusDays(3))
+                .status(Status.APPROVED)
+                .item(item)
+                .booker(booker)
+                .build());
+        Booking next = bookingRepository.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(Status.APPROVED)
+                .item(item)
+                .booker(booker)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .status(Status.APPROVED)
+                .item(item)
+                .booker(booker)
+                .build());
+
+        List<ItemBookingView> actual = bookingRepository.findLastAndNextBookingsByItemIds(List.of(item.getId()), now,
+                Status.APPROVED.name());
+
+        assertThat(actual.size(), is(2));
+        ItemBookingView actualLast = actual.stream().filter(view -> view.getStartDate().isBefore(now)).findFirst()
+                .orElseThrow();
+        ItemBookingView actualNext = actual.stream().filter(view -> view.getStartDate().isAfter(now)).findFirst()
+                .orElseThrow();
+        assertEquals(last.getId(), actualLast.getId());
+        assertEquals(next.getId(), actualNext.getId());
+        assertEquals(item.getId(), actualLast.getItemId());
+        assertEquals(booker.getId(), actualNext.getBookerId());
+    }
+
+    @Test
+    void findBookerBookingsAfter_whenEqualStart_thenPagesWithoutGapsAndDuplicates() {
+        LocalDateTime sameStart = now.plusDays(1);
+        Booking first = saveBooking(sameStart);
+        Booking second = saveBooking(sameStart);
+        Booking third = saveBooking(now.plusDays(2));
+        BookingCursor cursor = BookingCursor.FIRST;
+        Pageable limit = PageRequest.of(0, 2);
+
+        List<BookingResponseDto> firstPage = bookingRepository.findBookerBookingsAfter(booker.getId(),
+                cursor.getStart(), cursor.getId(), limit);
+        cursor = BookingCursor.of(firstPage.get(firstPage.size() - 1));
+        List<BookingResponseDto> secondPage = bookingRepository.findBookerBookingsAfter(booker.getId(),
+                cursor.getStart(), cursor.getId(), limit);
+        cursor = BookingCursor.of(secondPage.get(secondPage.size() - 1));
+        List<BookingResponseDto> thirdPage = bookingRepository.findBookerBookingsAfter(booker.getId(),
+                cursor.getStart(), cursor.getId(), limit);
+
+        assertEquals(List.of(booking.getId(), third.getId()), ids(firstPage));
+        assertEquals(List.of(second.getId(), first.getId()), ids(secondPage));
+        assertThat(thirdPage.size(), is(0));
+    }
+
+    @Test
+    void findOwnerBookingsByStatusAfter() {
+        Booking earlier = saveBooking(now.plusDays(1));
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+
+        List<BookingResponseDto> beforeCursor = bookingRepository.findOwnerBookingsByStatusAfter(owner.getId(),
+                Status.WAITING, BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), page);
+        List<BookingResponseDto> afterCursor = bookingRepository.findOwnerBookingsByStatusAfter(owner.getId(),
+                Status.WAITING, cursor.getStart(), cursor.getId(), page);
+
+        assertThat(beforeCursor.size(), is(2));
+        assertEquals(List.of(earlier.getId()), ids(afterCursor));
+    }
+
+    @Test
+    void bookingLists_whenProjected_thenSingleStatementAndNoEntities() {
+        for (int i = 0; i < 3; i++) {
+            User otherOwner = userRepository.save(User.builder().name("owner" + i).email("owner" + i + "@test.ru")
+                    .build());
+            User otherBooker = userRepository.save(User.builder().name("booker" + i).email("booker" + i + "@test.ru")
+                    .build());
+            Item otherItem = itemRepository.save(Item.builder().name("Item" + i).description("description")
+                    .owner(otherOwner).available(true).build());
+            bookingRepository.save(Booking.builder().start(now.plusDays(i + 1)).end(now.plusDays(i + 2))
+                    .status(Status.WAITING).item(otherItem).booker(otherBooker).build());
+        }
+        BookingCursor first = BookingCursor.FIRST;
+        List<Supplier<List<BookingResponseDto>>> queries = List.of(
+                () -> bookingRepository.findByBookerIdOrderByStartDesc(booker.getId(), page),
+                () -> bookingRepository.findByBookerIdAndStatusEquals(booker.getId(), Status.WAITING, page),
+                () -> bookingRepository.findByItem_OwnerIdOrderByStartDesc(owner.getId(), page),
+                () -> bookingRepository.findByItem_OwnerIdAndStartAfterOrderByStartDesc(owner.getId(), now, page),
+                () -> bookingRepository.findBookerBookingsAfter(booker.getId(), first.getStart(), first.getId(), page),
+                () -> bookingRepository.findOwnerBookingsAfter(owner.getId(), first.getStart(), first.getId(), page));
+        Statistics statistics = getStatistics();
+
+        for (int i = 0; i < queries.size(); i++) {
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+
+            List<BookingResponseDto> bookings = queries.get(i).get();
+
+            assertThat(bookings.isEmpty(), is(false));
+            assertBookingResponse(booking, bookings.get(0));
+            assertEquals(1, statistics.getPrepareStatementCount(), "query #" + i);
+            assertEquals(0, statistics.getEntityLoadCount(), "query #" + i);
+        }
+    }
+
+    @Test
+    void findById_whenAssociationsTouched_thenSingleStatement() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Booking actual = bookingRepository.findById(booking.getId()).orElseThrow();
+
+        assertEquals(item.getName(), actual.getItem().getName());
+        assertEquals(owner.getName(), actual.getItem().getOwner().getName());
+        assertEquals(booker.getName(), actual.getBooker().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveAll_whenSequenceIds_thenInsertsAreBatched() {
+        entityManager.flush();
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        bookingRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Booking.builder().start(now.plusDays(i)).end(now.plusDays(i + 1))
+                        .status(Status.WAITING).item(item).booker(booker).build())
+                .collect(Collectors.toList()));
+        entityManager.flush();
+
+        // 100 insert'ов - два batch по 50 и несколько запросов к последовательности вместо 100 statement'ов
+        assertEquals(100, statistics.getEntityInsertCount());
+        assertThat(statistics.getPrepareStatementCount() <= 5, is(true));
+    }
+
+    private Booking saveBooking(LocalDateTime start) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .item(item)
+                .booker(booker)
+                .build());
+    }
+
+    private Statistics getStatistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void assertBookingResponse(Booking expected, BookingResponseDto actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getStart(), actual.getStart());
+        assertEquals(expected.getEnd(), actual.getEnd());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getBooker().getId(), actual.getBooker().getId());
+        assertEquals(expected.getItem().getId(), actual.getItem().getId());
+        assertEquals(expected.getItem().getName(), actual.getItem().getName());
+    }
+
+    private List<Long> ids(List<BookingResponseDto> bookings) {
+        return bookings.stream().map(BookingResponseDto::getId).collect(Collectors.toList());
+    }
+}
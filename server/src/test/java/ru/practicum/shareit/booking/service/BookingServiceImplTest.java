@@ -13,6 +13,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingCursorPage;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -20,6 +24,7 @@ import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repositoty.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
@@ -30,6 +35,7 @@ import ru.practicum.shareit.user.dto.ShortUserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -39,6 +45,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -113,6 +120,23 @@ class BookingServiceImplTest {
 
         @Nested
         class WhenThrows {
+            @Test
+            @DisplayName("Бронирование на период, пересекающийся с подтверждённым, выбросит исключение")
+            void addBooking_whenOverlapsApprovedBooking_thenConflictException() {
+                //given
+                when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+                when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+                when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(1L, Status.APPROVED,
+                        DEFAULT_END_DATE, DEFAULT_START_DATE)).thenReturn(true);
+                //when
+                ConflictException e = assertThrows(ConflictException.class,
+                        () -> bookingService.addBooking(booking1Dto, 2L)
+                );
+                //then
+                assertEquals("Вещь уже забронирована на пересекающийся период.", e.getMessage());
+                verify(bookingRepository, never()).save(any(Booking.class));
+            }
+
             @Test
             @DisplayName("Добавление бронирования не существующим пользователем выбросит исключение")
             void addBooking_whenBookerNotFound_thenNotFoundException() {
@@ -195,14 +219,18 @@ class BookingServiceImplTest {
                 long bookingId = 1L;
                 Map<Boolean, Status> statuses = Map.of(true, Status.APPROVED, false, Status.REJECTED);
                 Booking booking = getBooking(bookingId, Status.WAITING);
-                when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
+                booking.setVersion(0L);
+                when(userRepository.existsById(anyLong())).thenReturn(true);
                 when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
-                when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+                when(bookingRepository.updateStatusByIdAndVersion(bookingId, 0L, Status.WAITING,
+                        statuses.get(approvalState))).thenReturn(1);
                 //when
                 BookingResponseDto responseDto = bookingService.approveBooking(1L, 1L, approvalState);
                 //then
                 assertEquals(statuses.get(approvalState), responseDto.getStatus());
+                assertEquals(1L, booking.getVersion());
                 verify(bookingRepository, times(1)).findById(1L);
+                verify(bookingRepository, never()).save(any(Booking.class));
             }
         }
 
@@ -233,7 +261,7 @@ class BookingServiceImplTest {
                 item1.setOwner(user3);
                 Booking booking = getBooking(bookingId, Status.WAITING);
 
-                when(userRepository.findById(anyLong())).thenReturn(Optional.of(user3));
+                when(userRepository.existsById(anyLong())).thenReturn(true);
                 when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
                 //when
                 NotFoundException e = assertThrows(NotFoundException.class,
@@ -244,6 +272,69 @@ class BookingServiceImplTest {
                 verify(bookingRepository, only()).findById(anyLong());
             }
 
+            @Test
+            @DisplayName("Бронирование, изменённое параллельным запросом после чтения, выбросит исключение")
+            void approve_whenVersionChangedAfterRead_thenConflictException() {
+                //given
+                Long bookingId = 1L;
+                Booking booking = getBooking(bookingId, Status.WAITING);
+                booking.setVersion(0L);
+                when(userRepository.existsById(anyLong())).thenReturn(true);
+                when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+                when(bookingRepository.updateStatusByIdAndVersion(bookingId, 0L, Status.WAITING, Status.APPROVED))
+                        .thenReturn(0);
+                //when
+                ConflictException e = assertThrows(ConflictException.class,
+                        () -> bookingService.approveBooking(1L, bookingId, true)
+                );
+                //then
+                assertEquals("Бронь с id = " + bookingId + " изменена параллельным запросом", e.getMessage());
+                assertEquals(Status.WAITING, booking.getStatus());
+            }
+
+            @Test
+            @DisplayName("Пересечение, отклонённое ограничением БД при подтверждении, выбросит исключение")
+            void approve_whenOverlapConstraintViolated_thenConflictException() {
+                //given
+                Long bookingId = 1L;
+                Booking booking = getBooking(bookingId, Status.WAITING);
+                booking.setVersion(0L);
+                when(userRepository.existsById(anyLong())).thenReturn(true);
+                when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+                when(bookingRepository.updateStatusByIdAndVersion(bookingId, 0L, Status.WAITING, Status.APPROVED))
+                        .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                                new SQLException("ERROR: conflicting key value violates exclusion constraint "
+                                        + "\"ex_bookings_item_approved_overlap\"", "23P01")));
+                //when
+                ConflictException e = assertThrows(ConflictException.class,
+                        () -> bookingService.approveBooking(1L, bookingId, true)
+                );
+                //then
+                assertEquals("Вещь уже забронирована на пересекающийся период.", e.getMessage());
+                assertEquals(Status.WAITING, booking.getStatus());
+            }
+
+            @Test
+            @DisplayName("Нарушение другого ограничения БД при подтверждении пробрасывается без изменений")
+            void approve_whenOtherConstraintViolated_thenDataIntegrityViolationException() {
+                //given
+                Long bookingId = 1L;
+                Booking booking = getBooking(bookingId, Status.WAITING);
+                booking.setVersion(0L);
+                DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                        "could not execute statement", new SQLException("ERROR: check constraint violated", "23514"));
+                when(userRepository.existsById(anyLong())).thenReturn(true);
+                when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+                when(bookingRepository.updateStatusByIdAndVersion(bookingId, 0L, Status.WAITING, Status.APPROVED))
+                        .thenThrow(violation);
+                //when
+                DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                        () -> bookingService.approveBooking(1L, bookingId, true)
+                );
+                //then
+                assertEquals(violation, e);
+            }
+
             @Test
             @DisplayName("Бронирования уже забронированной вещи невуозможн, выбросит исключение")
             void approve_whenBookingStatusAlreadyApproved_thenBadRequestException() {
@@ -251,7 +342,7 @@ class BookingServiceImplTest {
                 Long bookingId = 1L;
                 Long ownerId = 1L;
                 Booking booking = getBooking(bookingId, Status.APPROVED);
-                when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
+                when(userRepository.existsById(anyLong())).thenReturn(true);
                 when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
                 //when
                 BadRequestException bre = assertThrows(BadRequestException.class,
@@ -275,7 +366,7 @@ class BookingServiceImplTest {
                 //given
                 Long bookingId = 1L;
                 Booking booking = getBooking(bookingId, Status.WAITING);
-                when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+                when(userRepository.existsById(anyLong())).thenReturn(true);
                 when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
                 //when
                 BookingResponseDto responseDtoResult = bookingService.getBookingById(relatedUserId, bookingId);
@@ -304,7 +395,7 @@ class BookingServiceImplTest {
                         .item(item1)
                         .booker(user2)
                         .build();
-                when(userRepository.findById(anyLong())).thenReturn(Optional.of(user3));
+                when(userRepository.existsById(anyLong())).thenReturn(true);
                 when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
                 //when
                 NotFoundException e = assertThrows(NotFoundException.class,
@@ -327,14 +418,14 @@ class BookingServiceImplTest {
                 @Test
                 void getListByBookerTest() {
                     //given
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-                    when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking1ByUser2));
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
+                    when(bookingRepository.findByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(response1Dto));
                     when(bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                            .thenReturn(List.of(response1Dto));
                     when(bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                            .thenReturn(List.of(response1Dto));
                     when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                            anyLong(), any(), any(), any())).thenReturn(List.of(booking1ByUser2));
+                            anyLong(), any(), any(), any())).thenReturn(List.of(response1Dto));
 
                     //when
                     List<BookingResponseDto> responseDtoList;
@@ -346,7 +437,7 @@ class BookingServiceImplTest {
                     // then
                     assertEquals(1, responseDtoList.size());
                     assertEquals(booking1ByUser2.getId(), responseDtoList.get(0).getId());
-                    verify(userRepository, times(4)).findById(anyLong());
+                    verify(userRepository, times(4)).existsById(anyLong());
                     verify(bookingRepository, times(1)).findByBookerIdOrderByStartDesc(anyLong(), any());
                     verify(bookingRepository, times(1)).findByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any());
                     verify(bookingRepository, times(1)).findByBookerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any());
@@ -365,9 +456,9 @@ class BookingServiceImplTest {
                         verify(bookingRepository, never()).findByBookerIdAndStatusEquals(anyLong(), any(), any());
                         return;
                     }
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
                     when(bookingRepository.findByBookerIdAndStatusEquals(anyLong(), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                            .thenReturn(List.of(response1Dto));
                     //when
                     List<BookingResponseDto> list = bookingService.getUserBookings(2L, status.get(), 0, 20);
                     assertEquals(1, list.size());
@@ -379,9 +470,9 @@ class BookingServiceImplTest {
                 @DisplayName("Получение информации о всех ожидающих подтверждения бронированиях арендатором")
                 void getListByBooker_thenInputOk_thenReturnDtoList() {
                     //given
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
                     when(bookingRepository.findByBookerIdAndStatusEquals(anyLong(), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                            .thenReturn(List.of(response1Dto));
                     //when
                     List<BookingResponseDto> list = bookingService.getUserBookings(2L, BookingState.WAITING, 0, 20);
                     //then
@@ -413,16 +504,16 @@ class BookingServiceImplTest {
                 @Test
                 void getListByOwnerTest() {
                     //given
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-                    when(bookingRepository.findByItem_OwnerOrderByStartDesc(any(User.class), any()))
-                            .thenReturn(List.of(booking1ByUser2));
-                    when(bookingRepository.findByItem_OwnerAndStartAfterOrderByStartDesc(any(User.class), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
-                    when(bookingRepository.findByItem_OwnerAndEndBeforeOrderByStartDesc(any(User.class), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
-                    when(bookingRepository.findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(any(User.class), any(),
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
+                    when(bookingRepository.findByItem_OwnerIdOrderByStartDesc(anyLong(), any()))
+                            .thenReturn(List.of(response1Dto));
+                    when(bookingRepository.findByItem_OwnerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any()))
+                            .thenReturn(List.of(response1Dto));
+                    when(bookingRepository.findByItem_OwnerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any()))
+                            .thenReturn(List.of(response1Dto));
+                    when(bookingRepository.findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(anyLong(), any(),
                             any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                            .thenReturn(List.of(response1Dto));
 
                     //when
                     List<BookingResponseDto> responseDtoList;
@@ -435,12 +526,12 @@ class BookingServiceImplTest {
                     // then
                     assertEquals(1, responseDtoList.size());
                     assertEquals(booking1ByUser2.getId(), responseDtoList.get(0).getId());
-                    verify(userRepository, times(4)).findById(anyLong());
-                    verify(bookingRepository, times(1)).findByItem_OwnerOrderByStartDesc(any(User.class), any());
-                    verify(bookingRepository, times(1)).findByItem_OwnerAndStartAfterOrderByStartDesc(any(User.class), any(), any());
-                    verify(bookingRepository, times(1)).findByItem_OwnerAndEndBeforeOrderByStartDesc(any(User.class), any(), any());
-                    verify(bookingRepository, times(1)).findByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(
-                            any(User.class), any(), any(), any());
+                    verify(userRepository, times(4)).existsById(anyLong());
+                    verify(bookingRepository, times(1)).findByItem_OwnerIdOrderByStartDesc(anyLong(), any());
+                    verify(bookingRepository, times(1)).findByItem_OwnerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any());
+                    verify(bookingRepository, times(1)).findByItem_OwnerIdAndEndBeforeOrderByStartDesc(anyLong(), any(), any());
+                    verify(bookingRepository, times(1)).findByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
+                            anyLong(), any(), any(), any());
                     verifyNoMoreInteractions(bookingRepository, userRepository);
                 }
 
@@ -451,17 +542,17 @@ class BookingServiceImplTest {
                     //given
                     Optional<BookingState> status = BookingState.toState(str);
                     if (status.isEmpty()) {
-                        verify(bookingRepository, never()).findByItem_OwnerAndStatusEquals(any(User.class), any(), any());
+                        verify(bookingRepository, never()).findByItem_OwnerIdAndStatusEquals(anyLong(), any(), any());
                         return;
                     }
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-                    when(bookingRepository.findByItem_OwnerAndStatusEquals(any(User.class), any(), any()))
-                            .thenReturn(List.of(booking1ByUser2));
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
+                    when(bookingRepository.findByItem_OwnerIdAndStatusEquals(anyLong(), any(), any()))
+                            .thenReturn(List.of(response1Dto));
                     //when
                     List<BookingResponseDto> responseDtoList = bookingService.getOwnerBookings(2L, status.get(), 0, 20);
                     assertEquals(1, responseDtoList.size());
                     assertEquals(booking1ByUser2.getId(), responseDtoList.get(0).getId());
-                    verify(bookingRepository, only()).findByItem_OwnerAndStatusEquals(any(User.class), any(), any());
+                    verify(bookingRepository, only()).findByItem_OwnerIdAndStatusEquals(anyLong(), any(), any());
                     verifyNoMoreInteractions(bookingRepository);
                 }
 
@@ -469,18 +560,9 @@ class BookingServiceImplTest {
                 @DisplayName("Получение информации о всех ожидающих подтверждения бронированиях владельцем")
                 void getListByOwner_thenInputOk_thenReturnDtoList() {
                     //given
-                    Long bookingId = 1L;
-                    Booking booking = Booking.builder()
-                            .id(bookingId)
-                            .start(DEFAULT_START_DATE)
-                            .end(DEFAULT_END_DATE)
-                            .status(Status.WAITING)
-                            .item(item1)
-                            .booker(user2)
-                            .build();
-                    when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-                    when(bookingRepository.findByItem_OwnerAndStatusEquals(any(User.class), any(), any()))
-                            .thenReturn(List.of(booking));
+                    when(userRepository.existsById(anyLong())).thenReturn(true);
+                    when(bookingRepository.findByItem_OwnerIdAndStatusEquals(anyLong(), any(), any()))
+                            .thenReturn(List.of(response1Dto));
                     //when
                     List<BookingResponseDto> list = bookingService.getOwnerBookings(2L, BookingState.WAITING, 0, 20);
                     //then
@@ -490,6 +572,71 @@ class BookingServiceImplTest {
         }
     }
 
+    @Nested
+    class GetByCursorTest {
+        @Test
+        @DisplayName("Полная страница по курсору возвращает курсор следующей страницы")
+        void getUserBookingsByCursor_whenPageFull_thenNextCursorPointsToLastBooking() {
+            //given
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            // вторая строка - признак следующей страницы, в ответ не попадает
+            when(bookingRepository.findBookerBookingsAfter(anyLong(), any(), anyLong(), any()))
+                    .thenReturn(List.of(response1Dto, response1Dto));
+            //when
+            BookingCursorPage page = bookingService.getUserBookingsByCursor(2L, BookingState.ALL, null, 1);
+            //then
+            checkBookingResponseDtoList(response1Dto, page.getBookings());
+            BookingCursor next = BookingCursor.decode(page.getNextCursor());
+            assertEquals(booking1ByUser2.getStart(), next.getStart());
+            assertEquals(booking1ByUser2.getId(), next.getId());
+            verify(bookingRepository, only()).findBookerBookingsAfter(2L, BookingCursor.FIRST.getStart(),
+                    BookingCursor.FIRST.getId(), PageRequest.of(0, 2));
+        }
+
+        @Test
+        @DisplayName("Ровно заполненная последняя страница по курсору не возвращает курсор")
+        void getUserBookingsByCursor_whenLastPageExactlyFull_thenNoNextCursor() {
+            //given
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(bookingRepository.findBookerBookingsAfter(anyLong(), any(), anyLong(), any()))
+                    .thenReturn(List.of(response1Dto));
+            //when
+            BookingCursorPage page = bookingService.getUserBookingsByCursor(2L, BookingState.ALL, null, 1);
+            //then
+            checkBookingResponseDtoList(response1Dto, page.getBookings());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Неполная страница по курсору - последняя")
+        void getOwnerBookingsByCursor_whenPageNotFull_thenNoNextCursor() {
+            //given
+            String cursor = BookingCursor.of(response1Dto).encode();
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(bookingRepository.findOwnerBookingsByStatusAfter(anyLong(), any(), any(), anyLong(), any()))
+                    .thenReturn(List.of(response1Dto));
+            //when
+            BookingCursorPage page = bookingService.getOwnerBookingsByCursor(2L, BookingState.WAITING, cursor, 20);
+            //then
+            assertEquals(1, page.getBookings().size());
+            assertNull(page.getNextCursor());
+            verify(bookingRepository, only()).findOwnerBookingsByStatusAfter(2L, Status.WAITING,
+                    booking1ByUser2.getStart(), booking1ByUser2.getId(), PageRequest.of(0, 21));
+        }
+
+        @Test
+        @DisplayName("Некорректный курсор выбросит исключение")
+        void getUserBookingsByCursor_whenCursorMalformed_thenBadRequest() {
+            //given
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            //when
+            assertThrows(BadRequestException.class,
+                    () -> bookingService.getUserBookingsByCursor(2L, BookingState.ALL, "not-a-cursor", 20));
+            //then
+            verifyNoMoreInteractions(bookingRepository);
+        }
+    }
+
     private void checkBookingResponseDtoList(BookingResponseDto dto, List<BookingResponseDto> list) {
         assertEquals(1, list.size());
         assertEquals(dto.getStart(), list.get(0).getStart());
@@ -0,0 +1,222 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceImplWithDBApproveBookingsTest {
+    private static final int WAITING_COUNT = 30;
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    private final BookingServiceImpl bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingFixture fixture;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusHours(1);
+        owner = fixture.owner();
+        booker = fixture.booker();
+        item = fixture.item();
+    }
+
+    @Test
+    void approveBookings_whenManyWaiting_thenOneSelectAndOneUpdate() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < WAITING_COUNT; i++) {
+            ids.add(saveBooking(item, i, Status.WAITING).getId());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<BookingApprovalResultDto> results = bookingService.approveBookings(owner.getId(), ids, true);
+
+        // проверка владельца, выборка владельцев и статусов, блокировка вещи, подтверждённые интервалы,
+        // блокировка ожидающих бронирований, массовый UPDATE - независимо от числа бронирований
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(ids, results.stream().map(BookingApprovalResultDto::getBookingId).collect(Collectors.toList()));
+        results.forEach(result -> {
+            assertEquals(Status.APPROVED, result.getStatus());
+            assertNull(result.getError());
+        });
+        assertEquals(WAITING_COUNT, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE booking_status = 'APPROVED' AND version = 1", Integer.class));
+    }
+
+    @Test
+    void approveBookings_whenMixedIds_thenOutcomePerId() {
+        Item strangerItem = fixture.addItem(fixture.addUser("stranger"), "stranger item");
+        Long waitingId = saveBooking(item, 1, Status.WAITING).getId();
+        Long approvedId = saveBooking(item, 2, Status.APPROVED).getId();
+        Long strangerId = saveBooking(strangerItem, 3, Status.WAITING).getId();
+        Long missingId = strangerId + 1000;
+
+        List<BookingApprovalResultDto> results = bookingService.approveBookings(owner.getId(),
+                List.of(waitingId, approvedId, strangerId, missingId, waitingId), false);
+
+        assertEquals(4, results.size());
+        assertEquals(waitingId, results.get(0).getBookingId());
+        assertEquals(Status.REJECTED, results.get(0).getStatus());
+        assertEquals("Бронь с id = " + approvedId + " не ожидает подтверждения", results.get(1).getError());
+        assertEquals("Пользователь не является владельцем вещи.", results.get(2).getError());
+        assertEquals("Бронь с id = " + missingId + " не найдена.", results.get(3).getError());
+        assertEquals(Status.REJECTED, bookingRepository.findById(waitingId).orElseThrow().getStatus());
+        assertEquals(Status.APPROVED, bookingRepository.findById(approvedId).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(strangerId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenIntervalsOverlap_thenOnlyFirstOfOverlappingApproved() {
+        Long approvedId = saveBooking(item, 1, Status.APPROVED).getId();
+        Long overlapsApprovedId = saveBooking(item, 1, Status.WAITING).getId();
+        Long firstId = saveBooking(item, 5, Status.WAITING).getId();
+        Long overlapsFirstId = saveBooking(item, 5, Status.WAITING).getId();
+        Long adjacentId = saveBooking(item, 6, Status.WAITING).getId();
+
+        List<BookingApprovalResultDto> results = bookingService.approveBookings(owner.getId(),
+                List.of(overlapsApprovedId, firstId, overlapsFirstId, adjacentId), true);
+
+        assertEquals("Вещь уже забронирована на пересекающийся период.", results.get(0).getError());
+        assertEquals(Status.APPROVED, results.get(1).getStatus());
+        assertEquals("Вещь уже забронирована на пересекающийся период.", results.get(2).getError());
+        assertEquals(Status.APPROVED, results.get(3).getStatus());
+        assertEquals(Status.APPROVED, bookingRepository.findById(approvedId).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(overlapsFirstId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenOwnerNotFound_thenUserNotFoundException() {
+        List<Long> ids = List.of(saveBooking(item, 1, Status.WAITING).getId());
+
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.approveBookings(booker.getId() + 1000, ids, true));
+    }
+
+    @Test
+    void approveBookings_whenIdsEmpty_thenBadRequestException() {
+        assertThrows(BadRequestException.class, () -> bookingService.approveBookings(owner.getId(), List.of(), true));
+    }
+
+    @Test
+    void approveBookings_whenConcurrentSameDecision_thenEachBookingAppliedOnce() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < WAITING_COUNT; i++) {
+            ids.add(saveBooking(item, i, Status.WAITING).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<List<BookingApprovalResultDto>> outcomes = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<BookingApprovalResultDto>>> attempts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return bookingService.approveBookings(owner.getId(), ids, false);
+                }));
+            }
+            start.countDown();
+            for (Future<List<BookingApprovalResultDto>> attempt : attempts) {
+                outcomes.add(attempt.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // тот же статус, выставленный параллельным запросом, не считается решением этого запроса
+        for (int i = 0; i < ids.size(); i++) {
+            int index = i;
+            long applied = outcomes.stream().filter(results -> results.get(index).getStatus() != null).count();
+            assertEquals(1, applied, "бронь " + ids.get(i));
+        }
+        assertEquals(WAITING_COUNT, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE booking_status = 'REJECTED' AND version = 1", Integer.class));
+    }
+
+    @Test
+    void approveBooking_whenConcurrentDecisions_thenSingleWinnerAndOthersRejected() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long bookingId = saveBooking(item, round, Status.WAITING).getId();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BookingResponseDto>> attempts = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approved = i % 2 == 0;
+                    attempts.add(executor.submit(() -> {
+                        start.await();
+                        return bookingService.approveBooking(owner.getId(), bookingId, approved);
+                    }));
+                }
+                start.countDown();
+
+                List<BookingResponseDto> winners = new ArrayList<>();
+                for (Future<BookingResponseDto> attempt : attempts) {
+                    try {
+                        winners.add(attempt.get());
+                    } catch (ExecutionException e) {
+                        // проигравшие либо опоздали к CAS (409), либо прочитали уже решённую бронь (400)
+                        assertThat(e.getCause()).isInstanceOfAny(ConflictException.class, BadRequestException.class);
+                    }
+                }
+                assertEquals(1, winners.size());
+                Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+                assertEquals(winners.get(0).getStatus(), stored.getStatus());
+                assertEquals(1L, stored.getVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking saveBooking(Item bookedItem, int day, Status status) {
+        return fixture.addBooking(bookedItem, booker, base.plusDays(day), base.plusDays(day + 1), status);
+    }
+}
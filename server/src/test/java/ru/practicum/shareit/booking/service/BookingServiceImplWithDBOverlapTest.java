@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 100 потоков бронируют одну вещь, затем владелец параллельно подтверждает все заявки:
+// подтверждённые интервалы не пересекаются, а пропускная способность печатается в лог
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Slf4j
+class BookingServiceImplWithDBOverlapTest {
+    private static final int THREADS = 100;
+    // заявки на 20 суточных интервалов, по 5 пересекающихся на каждый
+    private static final int SLOTS = 20;
+    // интервал уже подтверждён до начала теста
+    private static final int APPROVED_SLOT = 7;
+
+    private final BookingServiceImpl bookingService;
+    private final BookingFixture fixture;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private List<User> bookers;
+    private Item item;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(1);
+        owner = fixture.owner();
+        item = fixture.item();
+        bookers = new ArrayList<>();
+        bookers.add(fixture.booker());
+        for (int i = 1; i < THREADS; i++) {
+            bookers.add(fixture.addUser("booker" + i));
+        }
+        fixture.addBooking(item, bookers.get(0), slotStart(APPROVED_SLOT), slotStart(APPROVED_SLOT + 1),
+                Status.APPROVED);
+    }
+
+    @Test
+    void addAndApproveBookings_whenHundredThreads_thenApprovedIntervalsNeverOverlap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<BookingResponseDto>> additions = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int slot = i % SLOTS;
+                User booker = bookers.get(i);
+                // половина заявок сдвинута на полдня и пересекается с соседним интервалом
+                LocalDateTime start = slotStart(slot).plusHours(i % 2 == 0 ? 0 : 12);
+                BookingRequestDto requestDto = new BookingRequestDto(item.getId(), start, start.plusDays(1));
+                additions.add(() -> bookingService.addBooking(requestDto, booker.getId()));
+            }
+            long begin = System.nanoTime();
+            List<BookingResponseDto> added = runConcurrently(executor, additions);
+            long addNanos = System.nanoTime() - begin;
+
+            // с подтверждённым интервалом [7, 8) пересекаются заявки на 7-й день и сдвинутые заявки 6-го дня
+            int overlapping = (int) added.stream().filter(dto -> dto == null).count();
+            assertEquals(THREADS / SLOTS * 2, overlapping);
+
+            List<Callable<BookingResponseDto>> approvals = new ArrayList<>();
+            for (BookingResponseDto dto : added) {
+                if (dto != null) {
+                    approvals.add(() -> bookingService.approveBooking(owner.getId(), dto.getId(), true));
+                }
+            }
+            begin = System.nanoTime();
+            List<BookingResponseDto> approved = runConcurrently(executor, approvals);
+            long approveNanos = System.nanoTime() - begin;
+            log.info("{} бронирований одной вещи: {} в секунду, {} подтверждений: {} в секунду.",
+                    THREADS, Math.round(THREADS * 1e9 / addNanos),
+                    approvals.size(), Math.round(approvals.size() * 1e9 / approveNanos));
+
+            assertThat(approved).anyMatch(dto -> dto != null);
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM bookings a JOIN bookings b ON a.item_id = b.item_id " +
+                            "AND a.booking_id < b.booking_id AND a.start_date < b.end_date AND b.start_date < a.end_date " +
+                            "WHERE a.booking_status = 'APPROVED' AND b.booking_status = 'APPROVED'", Integer.class));
+            assertEquals(approved.stream().filter(dto -> dto != null).count() + 1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM bookings WHERE booking_status = 'APPROVED'", Long.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // все задачи стартуют одновременно; отказ из-за пересечения - null в результате
+    private List<BookingResponseDto> runConcurrently(ExecutorService executor,
+                                                     List<Callable<BookingResponseDto>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingResponseDto>> futures = new ArrayList<>();
+        for (Callable<BookingResponseDto> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<BookingResponseDto> results = new ArrayList<>();
+        for (Future<BookingResponseDto> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(ConflictException.class);
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    private LocalDateTime slotStart(int slot) {
+        return base.plusDays(slot);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.util.Constants.USER_EXISTS_CACHE;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceImplWithDBOwnerBookingsTest {
+
+    private final BookingServiceImpl bookingService;
+    private final UserService userService;
+    private final BookingFixture fixture;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.owner();
+        fixture.addBooking(fixture.item(), fixture.booker(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), Status.WAITING);
+    }
+
+    @Test
+    void getOwnerBookings_whenOwnerChecked_thenExistenceCheckCached() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<BookingResponseDto> first = bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, 20);
+        long firstCallStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<BookingResponseDto> second = bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, 20);
+        long secondCallStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, first.size());
+        assertEquals(first, second);
+        assertEquals(firstCallStatements - 1, secondCallStatements);
+    }
+
+    @Test
+    void getOwnerBookings_whenOwnerDeleted_thenCacheEvicted() {
+        bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, 20);
+
+        userService.deleteUser(owner.getId());
+
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, 20));
+    }
+
+    @Test
+    void userExistsCache_isBoundedAndExpires() {
+        CaffeineCache cache = assertInstanceOf(CaffeineCache.class, cacheManager.getCache(USER_EXISTS_CACHE));
+        Policy<Object, Object> policy = cache.getNativeCache().policy();
+
+        assertEquals(10_000, policy.eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofSeconds(10).toNanos(),
+                policy.expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест пула соединений на запросе бронирований собственника (GET /bookings/owner).
+ * Запускается вручную, см. раздел README "Нагрузочный тест пула соединений".
+ * Для каждого уровня параллелизма печатает пропускную способность и время ожидания соединения:
+ * "колено" - уровень, после которого пропускная способность почти не растёт, а ожидание растёт.
+ */
+@SpringBootTest
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@EnabledIfSystemProperty(named = "shareit.loadtest", matches = "true")
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Slf4j
+class ConnectionPoolLoadTest {
+    private static final int[] CONCURRENCY_LEVELS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long STEP_MILLIS = Long.getLong("shareit.loadtest.step-millis", 3000);
+    private static final int BOOKINGS_COUNT = 200;
+    // прирост пропускной способности меньше 10% на удвоение потоков - пул (или БД) насыщен
+    private static final double KNEE_GAIN = 1.1;
+
+    private final BookingService bookingService;
+    private final BookingFixture fixture;
+    private final MeterRegistry meterRegistry;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.owner();
+        User booker = fixture.booker();
+        Item item = fixture.item();
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            fixture.addBooking(item, booker, start.plusDays(i), start.plusDays(i + 1), Status.APPROVED);
+        }
+    }
+
+    @Test
+    void ownerBookings_throughputAndAcquireTimeByConcurrency() throws Exception {
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        log.info("Пул: {} соединений.", meterRegistry.get("hikaricp.connections.max").gauge().value());
+        log.info("потоков | запросов/с | ожидание соединения, мс | макс. ожидающих");
+        double previousThroughput = 0;
+        Integer knee = null;
+        for (int threads : CONCURRENCY_LEVELS) {
+            long acquireCount = acquire.count();
+            double acquireMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+            StepResult result = runStep(threads);
+            double meanAcquire = (acquire.totalTime(TimeUnit.MILLISECONDS) - acquireMillis)
+                    / Math.max(acquire.count() - acquireCount, 1);
+            log.info(String.format("%7d | %10.0f | %23.3f | %15d",
+                    threads, result.throughput, meanAcquire, result.maxPending));
+            if (knee == null && previousThroughput > 0 && result.throughput < previousThroughput * KNEE_GAIN) {
+                knee = threads / 2;
+            }
+            previousThroughput = Math.max(previousThroughput, result.throughput);
+            assertThat(result.throughput).isPositive();
+        }
+        log.info("Колено кривой: {} потоков.", knee == null ? "не достигнуто" : knee);
+    }
+
+    private StepResult runStep(int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        LongAdder requests = new LongAdder();
+        AtomicInteger maxPending = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + STEP_MILLIS;
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, 0, 20);
+                    requests.increment();
+                }
+            }));
+        }
+        while (System.currentTimeMillis() < deadline) {
+            int pending = (int) meterRegistry.get("hikaricp.connections.pending").gauge().value();
+            maxPending.accumulateAndGet(pending, Math::max);
+            Thread.sleep(10);
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return new StepResult(requests.sum() * 1000.0 / STEP_MILLIS, maxPending.get());
+    }
+
+    @RequiredArgsConstructor
+    private static class StepResult {
+        private final double throughput;
+        private final int maxPending;
+    }
+}
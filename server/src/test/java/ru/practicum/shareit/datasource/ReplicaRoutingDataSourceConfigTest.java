@@ -0,0 +1,47 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// реплика указывает на ту же БД H2, что и основной пул: так локально имитируется репликация
+@SpringBootTest(properties = {
+        "shareit.datasource.routing.enabled=true",
+        "shareit.datasource.routing.replicas[0].url=jdbc:h2:mem:shareit",
+        "shareit.datasource.routing.replicas[0].username=test",
+        "shareit.datasource.routing.replicas[0].password=test"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ReplicaRoutingDataSourceConfigTest {
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyServiceMethodsGoToReplica_writesGoToPrimary() {
+        double primary = routes("primary");
+        double replica = routes("replica");
+
+        UserDto user = userService.createUser(UserDto.builder().name("user").email("routing@mail.com").build());
+        assertEquals(primary + 1, routes("primary"));
+        assertEquals(replica, routes("replica"));
+
+        assertEquals(user, userService.getUser(user.getId()));
+        assertEquals(primary + 1, routes("primary"));
+        assertEquals(replica + 1, routes("replica"));
+        assertEquals(0, routes("fallback"));
+    }
+
+    private double routes(String route) {
+        return meterRegistry.get(ReplicaRoutingDataSource.ROUTING_METRIC).tag("route", route).functionCounter().count();
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_1_URL = "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_2_URL = "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1";
+    // IFEXISTS=TRUE: несуществующая БД не создаётся, соединение не выдаётся - реплика "лежит"
+    private static final String DOWN_URL = "jdbc:h2:mem:down;IFEXISTS=TRUE";
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void getConnection_whenReadOnlyTransaction_thenReplicasInTurn() {
+        DataSource dataSource = routing(List.of(h2(REPLICA_1_URL), h2(REPLICA_2_URL)));
+
+        assertEquals(url(REPLICA_1_URL), readUrl(dataSource, true));
+        assertEquals(url(REPLICA_2_URL), readUrl(dataSource, true));
+        assertEquals(url(REPLICA_1_URL), readUrl(dataSource, true));
+        assertEquals(3, routes("replica"));
+    }
+
+    @Test
+    void getConnection_whenWriteTransactionOrNoTransaction_thenPrimary() throws SQLException {
+        DataSource dataSource = routing(List.of(h2(REPLICA_1_URL)));
+        // прокси при создании читает настройки соединения по умолчанию у основной БД
+        double primaryRoutes = routes("primary");
+
+        assertEquals(url(PRIMARY_URL), readUrl(dataSource, false));
+        try (var connection = dataSource.getConnection()) {
+            assertEquals(url(PRIMARY_URL), connection.getMetaData().getURL());
+        }
+        assertEquals(primaryRoutes + 2, routes("primary"));
+        assertEquals(0, routes("replica"));
+    }
+
+    @Test
+    void getConnection_whenReplicaDown_thenOtherReplica() {
+        DataSource dataSource = routing(List.of(h2(DOWN_URL), h2(REPLICA_2_URL)));
+
+        assertEquals(url(REPLICA_2_URL), readUrl(dataSource, true));
+        assertEquals(url(REPLICA_2_URL), readUrl(dataSource, true));
+        assertEquals(1.0, meterRegistry.get("shareit.datasource.replicas.healthy").gauge().value());
+    }
+
+    @Test
+    void getConnection_whenAllReplicasDown_thenFallbackToPrimary() {
+        DataSource dataSource = routing(List.of(h2(DOWN_URL)));
+
+        assertEquals(url(PRIMARY_URL), readUrl(dataSource, true));
+        assertEquals(1, routes("fallback"));
+        assertEquals(0.0, meterRegistry.get("shareit.datasource.replicas.healthy").gauge().value());
+    }
+
+    @Test
+    void getConnectionWithCredentials_thenRoutedLikeGetConnection() throws SQLException {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(h2(PRIMARY_URL), List.of(h2(REPLICA_1_URL)),
+                Duration.ofMinutes(1));
+        routing.bindTo(meterRegistry);
+        TransactionTemplate readOnly = new TransactionTemplate(
+                new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routing)));
+        readOnly.setReadOnly(true);
+
+        String readUrl = readOnly.execute(status -> {
+            try (Connection connection = routing.getConnection("sa", "")) {
+                return connection.getMetaData().getURL();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertEquals(url(PRIMARY_URL), connection.getMetaData().getURL());
+        }
+        assertEquals(url(REPLICA_1_URL), readUrl);
+        assertEquals(1, routes("replica"));
+    }
+
+    private DataSource routing(List<DataSource> replicas) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(h2(PRIMARY_URL), replicas,
+                Duration.ofMinutes(1));
+        routing.bindTo(meterRegistry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private String readUrl(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> {
+            try {
+                return DataSourceUtils.getConnection(dataSource).getMetaData().getURL();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private double routes(String route) {
+        return meterRegistry.get(ReplicaRoutingDataSource.ROUTING_METRIC).tag("route", route).functionCounter().count();
+    }
+
+    private static DataSource h2(String url) {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+
+    // H2 отдаёт URL без параметров после ';'
+    private static String url(String url) {
+        return url.substring(0, url.indexOf(';'));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.availability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityIndexTest {
+    private BookingRepository bookingRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ItemAvailabilityIndex index;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ItemAvailabilityIndex(bookingRepository, meterRegistry, 2);
+        base = LocalDateTime.now().plusDays(1);
+        // длинное ожидающее бронирование перекрывает более поздние по началу интервалы
+        when(bookingRepository.findSlotsByItemId(eq(1L), anyCollection(), any())).thenReturn(List.of(
+                slot(1L, 0, 10, Status.WAITING),
+                slot(2L, 2, 3, Status.APPROVED),
+                slot(3L, 5, 6, Status.APPROVED)));
+    }
+
+    @Test
+    @DisplayName("Пересечения ищутся с учётом интервалов, начавшихся раньше и закончившихся позже")
+    void findOverlapping_whenLoaded_thenOverlappingInStartOrder() {
+        assertEquals(List.of(1L, 3L), ids(load(1L, day(4), day(6))));
+
+        assertEquals(List.of(1L, 3L), ids(index.findOverlapping(1L, day(4), day(6)).orElseThrow()));
+        assertEquals(List.of(1L), ids(index.findOverlapping(1L, day(3), day(5)).orElseThrow()));
+        assertTrue(ids(index.findOverlapping(1L, day(10), day(11)).orElseThrow()).isEmpty());
+        verify(bookingRepository, times(1)).findSlotsByItemId(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Добавление и смена статуса бронирования обновляют закэшированную вещь")
+    void onBookingAddedAndStatusChanged_whenItemCached_thenIndexFollows() {
+        load(1L, day(0), day(1));
+
+        index.onBookingAdded(1L, slot(4L, 11, 12, Status.WAITING));
+        assertEquals(List.of(4L), ids(index.findOverlapping(1L, day(11), day(12)).orElseThrow()));
+
+        index.onStatusChanged(1L, 4L, Status.APPROVED);
+        assertEquals(Status.APPROVED, index.findOverlapping(1L, day(11), day(12)).orElseThrow()
+                .getBookings().get(0).getStatus());
+
+        index.onStatusChanged(1L, 4L, Status.REJECTED);
+        assertTrue(ids(index.findOverlapping(1L, day(11), day(12)).orElseThrow()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Вещи вытесняются по LRU, прошедшие периоды в индекс не попадают")
+    void findOverlapping_whenEvictedOrPast_thenMiss() {
+        load(1L, day(0), day(1));
+        load(2L, day(0), day(1));
+        index.findOverlapping(1L, day(0), day(1));
+        load(3L, day(0), day(1));
+
+        assertTrue(index.findOverlapping(1L, day(0), day(1)).isPresent());
+        assertTrue(index.findOverlapping(2L, day(0), day(1)).isEmpty());
+        assertTrue(index.findOverlapping(1L, LocalDateTime.now().minusDays(1), day(1)).isEmpty());
+        assertEquals(2, index.size());
+
+        index.evict(1L);
+        assertTrue(index.findOverlapping(1L, day(0), day(1)).isEmpty());
+        assertEquals(2.0, meterRegistry.get("shareit.availability.index.requests").tag("result", "hit")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Флаг available вещи кэшируется вместе с интервалами и читается вместе с ними")
+    void findOverlapping_whenItemUnavailable_thenFlagCached() {
+        ItemAvailabilityIndex.ItemBookings loaded = index.load(1L, day(4), day(6), () -> false);
+
+        assertFalse(loaded.isItemAvailable());
+        assertFalse(index.findOverlapping(1L, day(4), day(6)).orElseThrow().isItemAvailable());
+    }
+
+    @Test
+    @DisplayName("Вещь, вытесненная во время загрузки, в индекс не попадает")
+    void load_whenEvictedWhileLoading_thenNotCached() {
+        index.load(1L, day(4), day(6), () -> {
+            index.evict(1L);
+            return true;
+        });
+
+        assertTrue(index.findOverlapping(1L, day(4), day(6)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Отсутствующая вещь не загружается")
+    void load_whenItemNotFound_thenExceptionAndNotCached() {
+        assertThrows(IllegalStateException.class, () -> index.load(1L, day(4), day(6), () -> {
+            throw new IllegalStateException("Вещь не найдена");
+        }));
+
+        assertTrue(index.findOverlapping(1L, day(4), day(6)).isEmpty());
+        verify(bookingRepository, never()).findSlotsByItemId(any(), anyCollection(), any());
+    }
+
+    private List<BookingSlotDto> load(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return index.load(itemId, from, to, () -> true).getBookings();
+    }
+
+    private BookingSlotDto slot(Long id, int startDay, int endDay, Status status) {
+        return new BookingSlotDto(id, day(startDay), day(endDay), status);
+    }
+
+    private LocalDateTime day(int day) {
+        return base.plusDays(day);
+    }
+
+    private static List<Long> ids(ItemAvailabilityIndex.ItemBookings itemBookings) {
+        return ids(itemBookings.getBookings());
+    }
+
+    private static List<Long> ids(List<BookingSlotDto> slots) {
+        return slots.stream().map(BookingSlotDto::getId).collect(Collectors.toList());
+    }
+}
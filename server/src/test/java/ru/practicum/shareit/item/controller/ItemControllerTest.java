@@ -8,11 +8,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingSlotDto;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentResponseDto;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemBatchRowDto;
 import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -20,6 +26,7 @@ import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +36,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
@@ -292,6 +300,29 @@ class ItemControllerTest {
         verify(itemService).getOwnerItems(userId, 1, 2);
     }
 
+    @Test
+    void getItemAvailability_whenPeriodProvided_thenOKAndBookings() throws Exception {
+        //given
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime to = from.plusDays(2);
+        BookingSlotDto slot = new BookingSlotDto(1L, from.plusDays(1), to.plusDays(1), Status.APPROVED);
+        when(itemService.getItemAvailability(itemId, from, to))
+                .thenReturn(new ItemAvailabilityDto(itemId, from, to, false, List.of(slot)));
+        //when
+        mvc.perform(get(PATH + "/" + itemId + "/availability")
+                        .param("from", "2030-01-01T12:00:00")
+                        .param("to", "2030-01-03T12:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(itemId), Long.class))
+                .andExpect(jsonPath("$.available", is(false), Boolean.class))
+                .andExpect(jsonPath("$.bookings", hasSize(1)))
+                .andExpect(jsonPath("$.bookings[0].start", is("2030-01-02T12:00:00")))
+                .andExpect(jsonPath("$.bookings[0].status", is("APPROVED")));
+        verify(itemService).getItemAvailability(itemId, from, to);
+    }
+
     @Test
     void searchItems_whenQueryNotProvided_thenInternalServerError() throws Exception {
         //given
@@ -395,5 +426,57 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.authorName", is(user.getName()), String.class));
         verify(itemService, only()).addComment(commentDto, userId, itemId);
     }
-}
 
+    @Test
+    void postItemsBatch_whenNdjson_thenRowsStreamedToService() throws Exception {
+        //given
+        when(itemService.saveItems(eq(userId), any())).thenAnswer(invocation -> {
+            List<ItemBatchRowDto> rows = new ArrayList<>();
+            for (ItemBatchReader.Row row : invocation.<Iterable<ItemBatchReader.Row>>getArgument(1)) {
+                rows.add(new ItemBatchRowDto(row.getNumber(), row.getError() == null ? (long) row.getNumber() : null,
+                        row.getError()));
+            }
+            return new ItemBatchResultDto(rows.size(), 2, 1, rows);
+        });
+        String body = objectMapper.writeValueAsString(itemDto) + "\n"
+                + "{\"name\": \"item\", \"available\": \"maybe\"}\n"
+                + objectMapper.writeValueAsString(itemDto) + "\n";
+        //when
+        mvc.perform(post(PATH + "/batch")
+                        .header(REQUEST_HEADER, userId)
+                        .content(body)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.rows", hasSize(3)))
+                .andExpect(jsonPath("$.rows[0].id", is(1)))
+                .andExpect(jsonPath("$.rows[1].id").doesNotExist())
+                .andExpect(jsonPath("$.rows[1].error").isNotEmpty())
+                .andExpect(jsonPath("$.rows[2].id", is(3)));
+    }
+
+    @Test
+    void postItemsBatch_whenJsonArray_thenEachElementIsRow() throws Exception {
+        //given
+        List<ItemDto> items = new ArrayList<>();
+        when(itemService.saveItems(eq(userId), any())).thenAnswer(invocation -> {
+            for (ItemBatchReader.Row row : invocation.<Iterable<ItemBatchReader.Row>>getArgument(1)) {
+                items.add(row.getItem());
+            }
+            return new ItemBatchResultDto(items.size(), items.size(), 0, List.of());
+        });
+        //when
+        mvc.perform(post(PATH + "/batch")
+                        .header(REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto, itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)));
+        assertThat(items).containsExactly(itemDto, itemDto);
+    }
+}
@@ -66,14 +66,40 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findItemByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue() {
+    void searchAvailableByText() {
         Pageable page = PageRequest.of(0, 10);
         String text = "desCRIPtion";
 
-        List<Item> actualItems = repository.findItemByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(text, text, page);
+        List<Item> actualItems = repository.searchAvailableByText(text, page);
         Item actual = actualItems.get(0);
 
         assertEquals(actual, item);
         assertThat(actualItems.size(), is(1));
     }
+
+    @Test
+    void searchAvailableByText_whenWildcardInText_thenMatchedLiterally() {
+        Pageable page = PageRequest.of(0, 10);
+
+        List<Item> actualItems = repository.searchAvailableByText("\\%", page);
+
+        assertThat(actualItems.size(), is(0));
+    }
+
+    @Test
+    void searchAvailableByText_whenUnavailableItemNameMatches_thenNotFound() {
+        Pageable page = PageRequest.of(0, 10);
+        Item unavailable = Item.builder()
+                .name("drill")
+                .description("cordless")
+                .available(false)
+                .owner(owner)
+                .request(null)
+                .build();
+        repository.save(unavailable);
+
+        List<Item> actualItems = repository.searchAvailableByText("drill", page);
+
+        assertThat(actualItems.size(), is(0));
+    }
 }
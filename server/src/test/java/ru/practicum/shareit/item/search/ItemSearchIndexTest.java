@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemRepository itemRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ItemSearchIndex(itemRepository, meterRegistry, true);
+        when(itemRepository.streamAvailableItems()).thenReturn(Stream.of(
+                item(1L, "Дрель", "Простая дрель", true),
+                item(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                item(3L, "Клей Момент", "Тюбик суперклея", true)));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Поиск по подстроке токена без учёта регистра, как поиск в БД")
+    void search_whenSubstringOfToken_thenFound() {
+        assertEquals(List.of(1L), ids(index.search("дРелЬ", 0, 20)));
+        assertEquals(List.of(2L), ids(index.search("аккУМУЛЯТОРНАЯ", 0, 20)));
+        assertEquals(List.of(3L), ids(index.search("клей", 0, 20)));
+        assertEquals(List.of(3L), ids(index.search("перклея", 0, 20)));
+        assertTrue(index.search("пила", 0, 20).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Вещь со всеми триграммами запроса, но без подстроки, не найдена")
+    void search_whenTrigramsMatchButSubstringDoesNot_thenNotFound() {
+        index.index(item(20L, "абваб", "абг", true));
+
+        assertTrue(index.search("абвабг", 0, 20).isEmpty());
+        assertEquals(List.of(20L), ids(index.search("бваб", 0, 20)));
+    }
+
+    @Test
+    @DisplayName("Запросы не из одного токена и короче триграммы уходят в БД")
+    void canSearch_whenQueryIsNotSingleToken_thenFalse() {
+        assertTrue(index.canSearch("дрель"));
+        assertFalse(index.canSearch("простая дрель"));
+        assertFalse(index.canSearch("100%"));
+        assertFalse(index.canSearch("др"));
+        assertFalse(index.canSearch(""));
+        assertFalse(new ItemSearchIndex(itemRepository, new SimpleMeterRegistry(), false).canSearch("дрель"));
+    }
+
+    @Test
+    @DisplayName("Постраничный поиск в порядке id")
+    void search_withPaging_thenPageOrderedById() {
+        index.index(item(10L, "Дрель ударная", "дрель", true));
+        index.index(item(11L, "Дрель-шуруповёрт", "дрель", true));
+
+        assertEquals(List.of(1L, 10L), ids(index.search("дрель", 0, 2)));
+        assertEquals(List.of(11L), ids(index.search("дрель", 2, 2)));
+        assertTrue(index.search("дрель", 4, 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Обновление и удаление вещи обновляют индекс")
+    void index_whenUpdatedOrRemoved_thenPostingsUpdated() {
+        index.index(item(1L, "Перфоратор", "Мощный", true));
+        assertTrue(index.search("дрель", 0, 20).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("перфоратор", 0, 20)));
+
+        index.index(item(2L, "Отвертка", "Аккумуляторная отвертка", false));
+        assertTrue(index.search("отвертка", 0, 20).isEmpty());
+
+        index.remove(3L);
+        assertTrue(index.search("клей", 0, 20).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Изменения, закоммиченные во время перестройки, не перетираются снимком из БД")
+    void rebuild_whenItemsChangedDuringRebuild_thenChangesAppliedAfterSnapshot() {
+        List<Boolean> canSearchDuringRebuild = new ArrayList<>();
+        // поток уже прочитал снимок: вещи 1 и 3 вернутся в состоянии до изменений, сделанных после вещи 2
+        when(itemRepository.streamAvailableItems()).thenReturn(Stream.of(
+                item(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                item(1L, "Дрель", "Простая дрель", true),
+                item(3L, "Клей Момент", "Тюбик суперклея", true)).peek(item -> {
+                    if (item.getId() == 2L) {
+                        canSearchDuringRebuild.add(index.canSearch("дрель"));
+                        index.index(item(1L, "Перфоратор", "Мощный", true));
+                        index.remove(3L);
+                    }
+                }));
+
+        index.rebuild();
+
+        assertEquals(List.of(false), canSearchDuringRebuild);
+        assertTrue(index.canSearch("дрель"));
+        assertTrue(index.search("дрель", 0, 20).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("перфоратор", 0, 20)));
+        assertTrue(index.search("клей", 0, 20).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Если перестройка упала, поиск уходит в БД")
+    void rebuild_whenLoadFails_thenIndexNotUsed() {
+        when(itemRepository.streamAvailableItems()).thenThrow(new IllegalStateException("БД недоступна"));
+
+        assertThrows(IllegalStateException.class, () -> index.rebuild());
+
+        assertFalse(index.canSearch("дрель"));
+    }
+
+    @Test
+    @DisplayName("Память индекса публикуется в метриках")
+    void metrics_whenIndexBuilt_thenMemoryReported() {
+        assertEquals(3, meterRegistry.get("shareit.search.index.items").gauge().value());
+        double memory = meterRegistry.get("shareit.search.index.memory").gauge().value();
+        double perItem = meterRegistry.get("shareit.search.index.memory.per.item").gauge().value();
+        assertThat(memory).isPositive();
+        assertEquals(memory / 3, perItem, 0.001);
+    }
+
+    private ItemDto item(Long id, String name, String description, boolean available) {
+        return ItemDto.builder().id(id).name(name).description(description).available(available).build();
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        items.forEach(item -> assertNotNull(item.getName()));
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
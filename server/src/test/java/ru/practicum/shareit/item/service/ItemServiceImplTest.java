@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.TransactionSystemException;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repositoty.BookingRepository;
@@ -24,6 +27,8 @@ import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.OperationAccessException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
@@ -33,9 +38,14 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -44,8 +54,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
@@ -74,6 +86,8 @@ public class ItemServiceImplTest {
     @MockBean
     private final ItemRequestRepository requestRepository;
 
+    private final ObjectMapper objectMapper;
+
     private User user1, user2;
 
     private final Long user1Id = 1L;
@@ -207,6 +221,44 @@ public class ItemServiceImplTest {
         }
     }
 
+    @Nested
+    class SaveItemsTest {
+        @Test
+        @DisplayName("Сбой средней порции пакетного импорта не теряет результат остальных порций")
+        void saveItems_whenMiddleChunkCommitFails_thenOtherChunksReported() throws IOException {
+            //given
+            when(userRepository.findById(user1Id)).thenReturn(Optional.of(user1));
+            AtomicLong ids = new AtomicLong();
+            AtomicInteger calls = new AtomicInteger();
+            when(itemRepository.saveAll(anyList())).thenAnswer(invocationOnMock -> {
+                if (calls.incrementAndGet() == 2) {
+                    throw new TransactionSystemException("Could not commit JPA transaction");
+                }
+                List<Item> items = invocationOnMock.getArgument(0);
+                items.forEach(item -> item.setId(ids.incrementAndGet()));
+                return items;
+            });
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 1100; i++) {
+                body.append("{\"name\": \"item\", \"description\": \"description\", \"available\": true}\n");
+            }
+            //when
+            ItemBatchResultDto result;
+            try (ItemBatchReader rows = new ItemBatchReader(objectMapper,
+                    new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)))) {
+                result = itemService.saveItems(user1Id, rows);
+            }
+            //then
+            assertEquals(1100, result.getTotal());
+            assertEquals(600, result.getCreated());
+            assertEquals(500, result.getFailed());
+            assertNotNull(result.getRows().get(499).getId());
+            assertNull(result.getRows().get(500).getId());
+            assertEquals("Вещь не сохранена: Could not commit JPA transaction", result.getRows().get(999).getError());
+            assertNotNull(result.getRows().get(1000).getId());
+        }
+    }
+
     @Nested
     class GetOneTest {
         @Nested
@@ -217,16 +269,11 @@ public class ItemServiceImplTest {
                 //given
                 when(itemRepository.findById(item1Id)).thenReturn(Optional.of(item1));
                 when(userRepository.findById(user1Id)).thenReturn(Optional.of(user1));
-                when(bookingRepository.findFirst1ByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                        anyLong(),
-                        any(),
-                        any())
-                ).thenReturn(null);
-                when(bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
+                when(bookingRepository.findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any())
-                ).thenReturn(null);
+                        anyString())
+                ).thenReturn(List.of());
                 when(commentRepository.findByItem_Id(anyLong())).thenReturn(List.of());
                 //when
                 ItemBookingCommentDto responseDtoResult = itemService.getItemById(user1Id, item1Id);
@@ -237,14 +284,10 @@ public class ItemServiceImplTest {
                 assertTrue(responseDtoResult.getComments().isEmpty());
                 assertNull(responseDtoResult.getLastBooking());
                 assertNull(responseDtoResult.getNextBooking());
-                verify(bookingRepository).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
-                        any(),
-                        any());
-                verify(bookingRepository).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
+                verify(bookingRepository, only()).findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any());
+                        anyString());
                 verify(commentRepository).findByItem_Id(anyLong());
             }
 
@@ -254,16 +297,11 @@ public class ItemServiceImplTest {
                 //given
                 when(itemRepository.findById(item1Id)).thenReturn(Optional.of(item1));
                 when(userRepository.findById(user1Id)).thenReturn(Optional.of(user1));
-                when(bookingRepository.findFirst1ByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                        anyLong(),
+                when(bookingRepository.findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any())
-                ).thenReturn(booking1Last);
-                when(bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
-                        any(),
-                        any())
-                ).thenReturn(booking1Next);
+                        anyString())
+                ).thenReturn(List.of(toView(booking1Last), toView(booking1Next)));
                 when(commentRepository.findByItem_Id(anyLong())).thenReturn(List.of(comment1));
                 //when
                 ItemBookingCommentDto responseDtoResult = itemService.getItemById(user1Id, item1Id);
@@ -273,14 +311,10 @@ public class ItemServiceImplTest {
                 assertEquals(booking1Last.getId(), responseDtoResult.getLastBooking().getId());
                 assertEquals(booking1Next.getId(), responseDtoResult.getNextBooking().getId());
 
-                verify(bookingRepository).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
-                        any(),
-                        any());
-                verify(bookingRepository).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
+                verify(bookingRepository, only()).findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any());
+                        anyString());
                 verify(commentRepository).findByItem_Id(anyLong());
             }
 
@@ -297,14 +331,10 @@ public class ItemServiceImplTest {
                 checkItemDtoWithComment(responseDtoResult);
                 assertNull(responseDtoResult.getLastBooking());
                 assertNull(responseDtoResult.getNextBooking());
-                verify(bookingRepository, never()).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
-                        any(),
-                        any());
-                verify(bookingRepository, never()).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
+                verify(bookingRepository, never()).findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any());
+                        anyString());
                 verify(commentRepository).findByItem_Id(anyLong());
             }
         }
@@ -323,14 +353,10 @@ public class ItemServiceImplTest {
                 //then
                 assertEquals("Вещь с id = " + item1Id + " не найдена.", e.getMessage());
                 verify(itemRepository, only()).findById(anyLong());
-                verify(bookingRepository, never()).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
+                verify(bookingRepository, never()).findLastAndNextBookingsByItemIds(
+                        anyList(),
                         any(),
-                        any());
-                verify(bookingRepository, never()).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                        anyLong(),
-                        any(),
-                        any());
+                        anyString());
                 verify(commentRepository, never()).findByItem_Id(anyLong());
             }
         }
@@ -347,17 +373,12 @@ public class ItemServiceImplTest {
             //given
             when(itemRepository.findItemByOwner_IdIs(anyLong(), any())).thenReturn(List.of(item1));
             when(userRepository.findById(user1Id)).thenReturn(Optional.of(user1));
-            when(bookingRepository.findFirst1ByItemIdAndStartLessThanEqualAndStatusOrderByStartDesc(
-                    anyLong(),
-                    any(),
-                    any())
-            ).thenReturn(booking1Last);
-            when(bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                    anyLong(),
+            when(bookingRepository.findLastAndNextBookingsByItemIds(
+                    anyList(),
                     any(),
-                    any())
-            ).thenReturn(booking1Next);
-            when(commentRepository.findByItem_Id(anyLong())).thenReturn(List.of(comment1));
+                    anyString())
+            ).thenReturn(List.of(toView(booking1Last), toView(booking1Next)));
+            when(commentRepository.findByItem_IdIn(anyList())).thenReturn(List.of(comment1));
             //when
             List<ItemBookingCommentDto> result = itemService.getOwnerItems(user1Id, 0, 20);
             //then
@@ -370,6 +391,25 @@ public class ItemServiceImplTest {
             assertEquals(COMMENT, result.get(0).getComments().get(0).getText());
             assertEquals(booking1Last.getId(), result.get(0).getLastBooking().getId());
             assertEquals(booking1Next.getId(), result.get(0).getNextBooking().getId());
+            verify(bookingRepository, only()).findLastAndNextBookingsByItemIds(
+                    anyList(),
+                    any(),
+                    anyString());
+            verify(commentRepository, never()).findByItem_Id(anyLong());
+        }
+
+        @Test
+        @DisplayName("Получение пустого списка вещей владельцем не запрашивает бронирования и комментарии")
+        void getAllByUserId_thenNoItems_thenEmptyListWithoutEnrichment() {
+            //given
+            when(itemRepository.findItemByOwner_IdIs(anyLong(), any())).thenReturn(List.of());
+            when(userRepository.findById(user1Id)).thenReturn(Optional.of(user1));
+            //when
+            List<ItemBookingCommentDto> result = itemService.getOwnerItems(user1Id, 0, 20);
+            //then
+            assertTrue(result.isEmpty());
+            verify(bookingRepository, never()).findLastAndNextBookingsByItemIds(anyList(), any(), anyString());
+            verify(commentRepository, never()).findByItem_IdIn(anyList());
         }
     }
 
@@ -392,8 +432,7 @@ public class ItemServiceImplTest {
             @DisplayName("Поиск подходящих вещей по название/описанию с корректным query")
             void search_whenQuery_thenResult() {
                 //given
-                when(itemRepository.findItemByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(
-                        anyString(), anyString(), any())).thenReturn(List.of(item1));
+                when(itemRepository.searchAvailableByText(anyString(), any())).thenReturn(List.of(item1));
                 //when
                 List<ItemDto> result = itemService.findAvailableItemsByText("query", 0, 20);
                 //then
@@ -401,6 +440,17 @@ public class ItemServiceImplTest {
                 assertEquals(item1.getId(), result.get(0).getId());
                 assertEquals(item1.getName(), result.get(0).getName());
             }
+
+            @Test
+            @DisplayName("Поиск экранирует спецсимволы LIKE в query")
+            void search_whenQueryHasWildcards_thenEscaped() {
+                //given
+                when(itemRepository.searchAvailableByText(anyString(), any())).thenReturn(List.of());
+                //when
+                itemService.findAvailableItemsByText("100%_", 0, 20);
+                //then
+                verify(itemRepository).searchAvailableByText(eq("100\\%\\_"), any());
+            }
         }
     }
 
@@ -420,9 +470,9 @@ public class ItemServiceImplTest {
                         .booker(user2)
                         .status(Status.APPROVED)
                         .build();
-                when(bookingRepository.findFirst1ByBookerIdAndItem_IdAndEndIsBeforeAndStatus(
-                        anyLong(), anyLong(), any(), any()))
-                        .thenReturn(Optional.of(booking));
+                when(bookingRepository.findBookerPastItemBookings(
+                        anyLong(), anyLong(), any(), any(), any()))
+                        .thenReturn(List.of(booking));
                 when(commentRepository.save(any())).thenAnswer(
                         invocationOnMock -> {
                             Comment comment = invocationOnMock.getArgument(0, Comment.class);
@@ -445,9 +495,9 @@ public class ItemServiceImplTest {
             @DisplayName("Добавление комментария к не существующей вещи невозможно, выбросит исключение")
             void addComment_whenBookingNotFound_thenNotFoundException() {
                 //given
-                when(bookingRepository.findFirst1ByBookerIdAndItem_IdAndEndIsBeforeAndStatus(
-                        anyLong(), anyLong(), any(), any()))
-                        .thenReturn(Optional.empty());
+                when(bookingRepository.findBookerPastItemBookings(
+                        anyLong(), anyLong(), any(), any(), any()))
+                        .thenReturn(List.of());
                 //when
                 BadRequestException e = assertThrows(BadRequestException.class,
                         () -> itemService.addComment(comment1Dto, item1Id, user2Id)
@@ -500,6 +550,30 @@ public class ItemServiceImplTest {
                 .build();
     }
 
+    private ItemBookingView toView(Booking booking) {
+        return new ItemBookingView() {
+            @Override
+            public Long getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public Long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return booking.getStart();
+            }
+        };
+    }
+
     private void checkItemDtoBaseParam(ItemDto itemDto) {
         assertThat(itemDto).isNotNull();
         assertEquals(item1Id, itemDto.getId());
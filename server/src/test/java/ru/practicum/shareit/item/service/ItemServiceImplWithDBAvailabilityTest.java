@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.BookingFixture;
+import ru.practicum.shareit.util.CapturedSql;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.util.CapturedSql")
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceImplWithDBAvailabilityTest {
+
+    private final ItemServiceImpl itemService;
+    private final UserService userService;
+    private final BookingFixture fixture;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.owner();
+        booker = fixture.booker();
+        item = fixture.item();
+        from = LocalDateTime.now().plusDays(1);
+        to = from.plusDays(1);
+        fixture.addBooking(item, booker, from, to, Status.APPROVED);
+    }
+
+    @Test
+    void getItemAvailability_whenBookerDeleted_thenCascadedBookingsForgotten() {
+        assertFalse(itemService.getItemAvailability(item.getId(), from, to).getAvailable());
+
+        userService.deleteUser(booker.getId());
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(item.getId(), from, to);
+        assertTrue(availability.getAvailable());
+        assertTrue(availability.getBookings().isEmpty());
+    }
+
+    @Test
+    void getItemAvailability_whenItemUnavailable_thenNotAvailable() {
+        LocalDateTime freeFrom = to.plusDays(1);
+        LocalDateTime freeTo = freeFrom.plusDays(1);
+        assertTrue(itemService.getItemAvailability(item.getId(), freeFrom, freeTo).getAvailable());
+
+        itemService.updateItem(ItemDto.builder().available(false).build(), item.getId(), owner.getId());
+
+        assertFalse(itemService.getItemAvailability(item.getId(), freeFrom, freeTo).getAvailable());
+
+        itemService.updateItem(ItemDto.builder().available(true).build(), item.getId(), owner.getId());
+
+        assertTrue(itemService.getItemAvailability(item.getId(), freeFrom, freeTo).getAvailable());
+    }
+
+    @Test
+    void getItemAvailability_whenMiss_thenIntervalsReadFromPrimary() {
+        CapturedSql.clear();
+
+        itemService.getItemAvailability(item.getId(), from, to);
+
+        assertEquals(2, CapturedSql.statements().size());
+        assertEquals(List.of(false, false), CapturedSql.readOnly());
+    }
+
+    @Test
+    void getItemAvailability_whenItemDeleted_thenItemNotFound() {
+        assertFalse(itemService.getItemAvailability(item.getId(), from, to).getAvailable());
+
+        itemService.deleteItem(item.getId());
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemAvailability(item.getId(), from, to));
+    }
+
+    @Test
+    void getItemAvailability_whenOwnerDeleted_thenItemNotFound() {
+        assertFalse(itemService.getItemAvailability(item.getId(), from, to).getAvailable());
+
+        userService.deleteUser(owner.getId());
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemAvailability(item.getId(), from, to));
+    }
+}
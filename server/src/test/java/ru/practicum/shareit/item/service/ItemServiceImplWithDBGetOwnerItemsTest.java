@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.item.dto.ItemBookingCommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Sql("/owner-items.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceImplWithDBGetOwnerItemsTest {
+
+    private final ItemServiceImpl itemService;
+    private final ItemRepository itemRepository;
+    private final BookingFixture fixture;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // вещи из owner-items.sql
+    private static final int ITEMS_COUNT = 50;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.owner();
+    }
+
+    @Test
+    void getOwnerItems_statementCountDoesNotDependOnPageSize() {
+        long onePage = countStatements(1);
+        long tenPage = countStatements(10);
+        long fullPage = countStatements(ITEMS_COUNT);
+
+        assertEquals(onePage, tenPage);
+        assertEquals(onePage, fullPage);
+    }
+
+    @Test
+    void getOwnerItems_pageIsFullyEnriched() {
+        List<ItemBookingCommentDto> items = itemService.getOwnerItems(owner.getId(), 0, ITEMS_COUNT);
+
+        assertEquals(ITEMS_COUNT, items.size());
+        items.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(1, item.getComments().size());
+        });
+    }
+
+    @Test
+    void getOwnerItems_runsInSingleReadOnlyTransaction() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemService.getOwnerItems(owner.getId(), 0, ITEMS_COUNT);
+
+        // одна транзакция на весь метод; FlushMode.MANUAL - при коммите сессия не сбрасывается
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(0, statistics.getFlushCount());
+    }
+
+    @Test
+    void updateItem_runsInSingleWriteTransaction() {
+        Item item = itemRepository.findItemByOwner_IdIs(owner.getId(), PageRequest.of(0, 1)).get(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ItemDto updated = itemService.updateItem(ItemDto.builder().name("updated").build(), item.getId(),
+                owner.getId());
+
+        assertEquals("updated", updated.getName());
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(1, statistics.getFlushCount());
+    }
+
+    private long countStatements(int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemBookingCommentDto> items = itemService.getOwnerItems(owner.getId(), 0, size);
+        assertEquals(size, items.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
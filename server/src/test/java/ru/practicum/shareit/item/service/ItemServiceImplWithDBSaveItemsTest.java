@@ -0,0 +1,165 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.batch.ItemBatchReader;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemBatchRowDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingFixture;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@Sql("/booking.sql")
+@Import(BookingFixture.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceImplWithDBSaveItemsTest {
+    private static final int ITEMS_COUNT = 1200;
+
+    private final ItemServiceImpl itemService;
+    private final BookingFixture fixture;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.owner();
+    }
+
+    @Test
+    void saveItems_whenJsonArray_thenOwnerLoadedOnceAndInsertsBatched() throws IOException {
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            items.add(ItemDto.builder().name("item" + i).description("description" + i).available(true).build());
+        }
+        int ownerItems = countOwnerItems();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ItemBatchResultDto result = importItems(objectMapper.writeValueAsString(items));
+
+        assertEquals(ITEMS_COUNT, result.getCreated());
+        assertEquals(0, result.getFailed());
+        assertEquals(ownerItems + ITEMS_COUNT, countOwnerItems());
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        // 1200 вещей: 24 batch'а по 50 и 24 обращения к последовательности вместо 1200 insert'ов
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ITEMS_COUNT / 10);
+    }
+
+    @Test
+    void saveItems_whenInvalidRows_thenReportedPerRowAndValidRowsSaved() throws IOException {
+        String body = "{\"name\": \"item1\", \"description\": \"description\", \"available\": true}\n"
+                + "{\"name\": \"\", \"description\": \"description\", \"available\": true}\n"
+                + "{\"name\": \"item3\", \"description\": \"description\", \"available\": \"maybe\"}\n"
+                + "[1, 2]\n"
+                + "{\"name\": \"item5\", \"description\": \"description\", \"available\": true, \"requestId\": 999}\n"
+                + "{\"name\": \"item6\", \"description\": \"description\", \"available\": false}\n";
+
+        ItemBatchResultDto result = importItems(body);
+
+        assertEquals(6, result.getTotal());
+        assertEquals(2, result.getCreated());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6),
+                result.getRows().stream().map(ItemBatchRowDto::getRow).collect(Collectors.toList()));
+        assertNotNull(result.getRows().get(0).getId());
+        assertEquals("Название не может быть пустым", result.getRows().get(1).getError());
+        assertThat(result.getRows().get(2).getError()).startsWith("Некорректные поля вещи");
+        assertEquals("Ожидался JSON-объект вещи.", result.getRows().get(3).getError());
+        assertEquals("Запрос с id = 999 не найден.", result.getRows().get(4).getError());
+        assertNotNull(result.getRows().get(5).getId());
+        assertNull(result.getRows().get(5).getError());
+    }
+
+    @Test
+    void saveItems_whenMalformedJson_thenRowsBeforeSavedAndImportStopped() throws IOException {
+        String body = "{\"name\": \"item1\", \"description\": \"description\", \"available\": true}\n"
+                + "{\"name\": \"item2\", \"description\": \n"
+                + "{\"name\": \"item3\", \"description\": \"description\", \"available\": true}\n";
+
+        ItemBatchResultDto result = importItems(body);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertThat(result.getRows().get(1).getError()).startsWith("Некорректный JSON, импорт остановлен");
+    }
+
+    @Test
+    void saveItems_whenMiddleChunkFails_thenOnlyItsRowsRolledBackAndReported() throws IOException {
+        // порции по 500 строк: название длиннее ITEM_NAME VARCHAR(128) в строке 700 роняет вторую порцию в БД
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS_COUNT; i++) {
+            String name = i == 700 ? "x".repeat(200) : "import" + i;
+            items.add(ItemDto.builder().name(name).description("description").available(true).build());
+        }
+
+        ItemBatchResultDto result = importItems(objectMapper.writeValueAsString(items));
+
+        assertEquals(ITEMS_COUNT, result.getTotal());
+        assertEquals(ITEMS_COUNT - 500, result.getCreated());
+        assertEquals(500, result.getFailed());
+        result.getRows().forEach(row -> {
+            boolean middleChunk = row.getRow() > 500 && row.getRow() <= 1000;
+            assertEquals(middleChunk, row.getId() == null, "строка " + row.getRow());
+            if (middleChunk) {
+                assertThat(row.getError()).startsWith("Вещь не сохранена: ");
+            }
+        });
+        assertEquals(result.getCreated(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE owner_id = ? AND item_name LIKE 'import%'", Integer.class,
+                owner.getId()));
+        assertEquals(result.getRows().stream().map(ItemBatchRowDto::getId).filter(id -> id != null).sorted()
+                        .collect(Collectors.toList()),
+                jdbcTemplate.queryForList("SELECT item_id FROM items WHERE owner_id = ? AND item_name LIKE 'import%' " +
+                        "ORDER BY item_id", Long.class, owner.getId()));
+    }
+
+    @Test
+    void saveItems_whenOwnerNotFound_thenUserNotFoundException() {
+        assertThrows(UserNotFoundException.class, () -> importItems("[]", owner.getId() + 1000));
+    }
+
+    private int countOwnerItems() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner_id = ?", Integer.class,
+                owner.getId());
+    }
+
+    private ItemBatchResultDto importItems(String body) throws IOException {
+        return importItems(body, owner.getId());
+    }
+
+    private ItemBatchResultDto importItems(String body, Long userId) throws IOException {
+        try (ItemBatchReader rows = new ItemBatchReader(objectMapper,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            return itemService.saveItems(userId, rows);
+        }
+    }
+}
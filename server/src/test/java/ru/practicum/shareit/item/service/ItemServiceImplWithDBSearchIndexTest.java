@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "shareit.search.index.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase
+@Sql(scripts = "/item-search.sql", config = @SqlConfig(encoding = "UTF-8"))
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceImplWithDBSearchIndexTest {
+
+    private final ItemServiceImpl itemService;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE email = 'owner@mail.com'", Long.class);
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void search_whenIndexRebuiltFromDb_thenAnsweredWithoutStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> found = itemService.findAvailableItemsByText("дрель", 0, 20);
+
+        assertEquals(1, found.size());
+        assertEquals("Дрель", found.get(0).getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void search_whenItemSavedUpdatedAndDeleted_thenIndexFollows() {
+        ItemDto saved = itemService.saveItem(ItemDto.builder()
+                .name("Перфоратор")
+                .description("Мощный")
+                .available(true)
+                .build(), ownerId);
+        assertEquals(1, itemService.findAvailableItemsByText("перфоратор", 0, 20).size());
+
+        itemService.updateItem(ItemDto.builder().name("Шуруповёрт").build(), saved.getId(), ownerId);
+        assertTrue(itemService.findAvailableItemsByText("перфоратор", 0, 20).isEmpty());
+        assertEquals(1, itemService.findAvailableItemsByText("шуруповёрт", 0, 20).size());
+
+        itemService.deleteItem(saved.getId());
+        assertTrue(itemService.findAvailableItemsByText("шуруповёрт", 0, 20).isEmpty());
+    }
+
+    @Test
+    void search_whenSaveRolledBack_thenItemNotIndexed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.saveItem(ItemDto.builder()
+                    .name("Перфоратор")
+                    .description("Мощный")
+                    .available(true)
+                    .build(), ownerId);
+            status.setRollbackOnly();
+        });
+
+        assertTrue(itemService.findAvailableItemsByText("перфоратор", 0, 20).isEmpty());
+    }
+
+    @Test
+    void search_whenOwnerDeleted_thenOwnerItemsRemoved() {
+        userService.deleteUser(ownerId);
+
+        assertTrue(itemService.findAvailableItemsByText("дрель", 0, 20).isEmpty());
+        assertEquals(0, searchIndex.size());
+    }
+}
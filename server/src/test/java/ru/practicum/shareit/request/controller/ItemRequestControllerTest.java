@@ -12,6 +12,7 @@ import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.request.ItemRequestController;
+import ru.practicum.shareit.request.dto.ItemRequestCursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -28,14 +29,17 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constants.DATE_TIME_FORMAT;
+import static ru.practicum.shareit.util.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -152,6 +156,26 @@ class ItemRequestControllerTest {
         verify(itemRequestService).getAllRequests(2L, 0, 20);
     }
 
+    @Test
+    void getAllRequestsByAnotherUsers_whenCursorProvided_thenNextCursorHeader() throws Exception {
+        //given
+        when(itemRequestService.getAllRequestsByCursor(anyLong(), any(), anyInt()))
+                .thenReturn(new ItemRequestCursorPage(List.of(itemRequestResponseDto), "next"));
+        //when
+        mvc.perform(get(PATH + "/all")
+                        .header(REQUEST_HEADER, 2L)
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(header().string(NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemRequestResponseDto.getId()), Long.class));
+        verify(itemRequestService).getAllRequestsByCursor(2L, "", 1);
+        verify(itemRequestService, never()).getAllRequests(anyLong(), anyInt(), anyInt());
+    }
+
     @Test
     void getAllRequestsByAnotherUsers_whenRequestParamsProvided_thenOKAndParamsValues() throws Exception {
         //given
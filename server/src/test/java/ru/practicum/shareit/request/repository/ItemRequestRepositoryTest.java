@@ -7,21 +7,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CapturedSql;
 
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@DataJpaTest
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.util.CapturedSql")
 class ItemRequestRepositoryTest {
 
     @Autowired
@@ -33,6 +38,9 @@ class ItemRequestRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private User requester;
     private User owner;
     private ItemRequest itemRequest;
@@ -100,4 +108,45 @@ class ItemRequestRepositoryTest {
         assertEquals(itemRequest, actualRequest);
         assertThat(actualRequests.size(), is(1));
     }
+
+    @Test
+    void findOthersRequestsAfter_whenEqualCreated_thenPagesWithoutGapsAndDuplicates() {
+        ItemRequest first = saveRequest(itemRequest.getCreated());
+        ItemRequest second = saveRequest(itemRequest.getCreated().minusDays(1));
+        ItemRequestCursor cursor = ItemRequestCursor.FIRST;
+        Pageable limit = PageRequest.of(0, 2);
+
+        List<ItemRequest> firstPage = itemRequestRepository.findOthersRequestsAfter(owner.getId(),
+                cursor.getCreated(), cursor.getId(), limit);
+        cursor = ItemRequestCursor.of(firstPage.get(firstPage.size() - 1));
+        List<ItemRequest> secondPage = itemRequestRepository.findOthersRequestsAfter(owner.getId(),
+                cursor.getCreated(), cursor.getId(), limit);
+
+        assertEquals(List.of(first.getId(), itemRequest.getId()),
+                List.of(firstPage.get(0).getId(), firstPage.get(1).getId()));
+        assertThat(secondPage.size(), is(1));
+        assertEquals(second.getId(), secondPage.get(0).getId());
+        assertThat(itemRequestRepository.findOthersRequestsAfter(requester.getId(), ItemRequestCursor.FIRST.getCreated(),
+                ItemRequestCursor.FIRST.getId(), limit).size(), is(0));
+    }
+
+    @Test
+    void othersRequestsFeed_usesCreatedIdIndex() {
+        // лента пуста: последний запрос - сама выборка ленты, а не загрузка авторов запросов
+        CapturedSql.clear();
+        itemRequestRepository.findOthersRequestsAfter(requester.getId(), ItemRequestCursor.FIRST.getCreated(),
+                ItemRequestCursor.FIRST.getId(), PageRequest.of(0, 20));
+
+        String plan = CapturedSql.explain(jdbcTemplate, CapturedSql.last());
+
+        assertThat(plan, containsString("IDX_REQUESTS_CREATED_ID"));
+    }
+
+    private ItemRequest saveRequest(LocalDateTime created) {
+        return itemRequestRepository.save(ItemRequest.builder()
+                .description("Request description")
+                .requester(requester)
+                .created(created)
+                .build());
+    }
 }
@@ -10,10 +10,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestCursor;
+import ru.practicum.shareit.request.dto.ItemRequestCursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -27,6 +30,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -118,6 +122,55 @@ class ItemRequestServiceImplTest {
         checkItemRequestResponseDtoList(requests);
     }
 
+    @Test
+    @DisplayName("Полная страница ленты запросов по курсору возвращает курсор следующей страницы")
+    void getAllRequestsByCursor_whenPageFull_thenNextCursorPointsToLastRequest() {
+        //given
+        // вторая строка - признак следующей страницы, в ответ не попадает
+        when(requestRepository.findOthersRequestsAfter(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(requestByUser2, requestByUser2));
+        when(itemRepository.findAllByRequest_IdIn(any())).thenReturn(List.of(item));
+        //when
+        ItemRequestCursorPage page = requestService.getAllRequestsByCursor(user1Id, null, 1);
+        //then
+        checkItemRequestResponseDtoList(page.getRequests());
+        ItemRequestCursor next = ItemRequestCursor.decode(page.getNextCursor());
+        assertEquals(requestByUser2.getCreated(), next.getCreated());
+        assertEquals(requestByUser2.getId(), next.getId());
+        verify(requestRepository, only()).findOthersRequestsAfter(user1Id, ItemRequestCursor.FIRST.getCreated(),
+                ItemRequestCursor.FIRST.getId(), PageRequest.of(0, 2));
+    }
+
+    @Test
+    @DisplayName("Ровно заполненная последняя страница ленты запросов не возвращает курсор")
+    void getAllRequestsByCursor_whenLastPageExactlyFull_thenNoNextCursor() {
+        //given
+        when(requestRepository.findOthersRequestsAfter(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(requestByUser2));
+        when(itemRepository.findAllByRequest_IdIn(any())).thenReturn(List.of(item));
+        //when
+        ItemRequestCursorPage page = requestService.getAllRequestsByCursor(user1Id, null, 1);
+        //then
+        checkItemRequestResponseDtoList(page.getRequests());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Неполная страница ленты запросов по курсору - последняя")
+    void getAllRequestsByCursor_whenPageNotFull_thenNoNextCursor() {
+        //given
+        when(requestRepository.findOthersRequestsAfter(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(requestByUser2));
+        //when
+        ItemRequestCursorPage page = requestService.getAllRequestsByCursor(user1Id,
+                ItemRequestCursor.of(requestByUser2).encode(), 20);
+        //then
+        assertEquals(1, page.getRequests().size());
+        assertNull(page.getNextCursor());
+        verify(requestRepository, only()).findOthersRequestsAfter(user1Id, requestByUser2.getCreated(),
+                requestByUser2.getId(), PageRequest.of(0, 21));
+    }
+
     @Test
     @DisplayName("Получение списка запросов другого пользователя, если их нет, то возвращает пустой список")
     void getAllRequestsByAnotherUsers_thenInputOkWithItems_thenWithItems() {
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.threads;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.util.Constants.REQUEST_HEADER;
+
+/**
+ * Запускается в профиле сборки java21, который добавляет -Djdk.tracePinnedThreads=full: под нагрузкой на
+ * виртуальных потоках собирает кадры, удерживавшие монитор при закреплении потока на несущем, и печатает их
+ * по числу закреплений. Закрепления в коде пула и драйвера только печатаются, в коде приложения - ошибка.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.threads.virtual=true")
+@EnabledIfSystemProperty(named = "jdk.tracePinnedThreads", matches = ".+")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Slf4j
+class VirtualThreadPinningTest {
+    private static final int REQUESTS = 500;
+    // кадр, удерживающий монитор, в выводе jdk.tracePinnedThreads помечается так
+    private static final String MONITOR_MARK = "<== monitors:";
+
+    private final ServletWebServerApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    @Sql("/virtual-thread-pinning.sql")
+    void ownerBookings_whenServedOnVirtualThreads_thenApplicationCodeNeverPinsCarrier() throws Exception {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        assertThat(connector.getProtocolHandler().getExecutor().getClass().getName())
+                .contains("ThreadPerTaskExecutor");
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + connector.getLocalPort() + "/bookings/owner?from=0&size=20"))
+                .header(REQUEST_HEADER, String.valueOf(jdbcTemplate.queryForObject(
+                        "SELECT user_id FROM users WHERE email = 'owner@mail.com'", Long.class)))
+                .build();
+
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(trace, true, StandardCharsets.UTF_8));
+        List<HttpResponse<String>> responses;
+        try {
+            List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            responses = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            System.setOut(stdout);
+        }
+
+        assertThat(responses).allMatch(response -> response.statusCode() == 200);
+        Map<String, Long> pinningFrames = trace.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.contains(MONITOR_MARK))
+                .map(String::trim)
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+        pinningFrames.forEach((frame, count) -> log.info("Закрепление виртуального потока ({}): {}", count, frame));
+        assertThat(pinningFrames.keySet()).noneMatch(frame -> frame.contains("ru.practicum.shareit."));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repositoty.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Данные для тестов с БД. Владелец, арендатор и вещь владельца вставляются скриптом
+ * {@code @Sql("/booking.sql")}, который перед этим очищает таблицы, остальное тест добавляет через этот класс.
+ * Тот же владелец и арендатор есть в owner-items.sql. Подключается в тест через {@code @Import(BookingFixture.class)}.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class BookingFixture {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public User owner() {
+        return findUser("owner@mail.com");
+    }
+
+    public User booker() {
+        return findUser("booker@mail.com");
+    }
+
+    public Item item() {
+        User owner = owner();
+        Item item = itemRepository.findById(jdbcTemplate.queryForObject(
+                "SELECT item_id FROM items WHERE owner_id = ? AND item_name = 'item'", Long.class, owner.getId()))
+                .orElseThrow();
+        item.setOwner(owner);
+        return item;
+    }
+
+    public User addUser(String name) {
+        return userRepository.save(User.builder().name(name).email(name + "@mail.com").build());
+    }
+
+    public Item addItem(User owner, String name) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    public Booking addBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, Status status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+
+    private User findUser(String email) {
+        return userRepository.findById(jdbcTemplate.queryForObject(
+                "SELECT user_id FROM users WHERE email = ?", Long.class, email)).orElseThrow();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SQL, который Hibernate отправляет в БД. Подключается в тесте свойством
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class CapturedSql implements StatementInspector {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    // признак read-only транзакции каждого запроса: по нему маршрутизация отправляет запрос на реплику
+    private static final List<Boolean> READ_ONLY = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        READ_ONLY.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+        READ_ONLY.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static List<Boolean> readOnly() {
+        return List.copyOf(READ_ONLY);
+    }
+
+    public static String last() {
+        if (STATEMENTS.isEmpty()) {
+            throw new IllegalStateException("Hibernate не выполнил ни одного запроса.");
+        }
+        return STATEMENTS.get(STATEMENTS.size() - 1);
+    }
+
+    // значения параметров не влияют на выбор индекса в H2, поэтому все параметры - null
+    public static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+        }, resultSet -> resultSet.next() ? resultSet.getString(1) : "");
+    }
+}
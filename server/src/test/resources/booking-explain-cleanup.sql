@@ -0,0 +1 @@
+DELETE FROM users WHERE user_id > 1000000;
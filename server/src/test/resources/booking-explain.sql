@@ -0,0 +1,17 @@
+-- объём, при котором полный просмотр таблицы заметно дороже поиска по индексу:
+-- 200 пользователей, у каждого 2 вещи, 20 бронирований на вещь. id с 1000001 не пересекаются с выданными
+-- последовательностями; строки удаляются каскадом вместе с пользователями, см. booking-explain-cleanup.sql
+INSERT INTO users (user_id, name, email)
+SELECT 1000000 + x, 'explain' || x, 'explain' || x || '@mail.com' FROM SYSTEM_RANGE(1, 200);
+
+INSERT INTO items (item_id, item_name, description, available, owner_id)
+SELECT 1000000 + x, 'item' || x, 'description' || x, MOD(x, 5) > 0, 1000000 + MOD(x, 200) + 1 FROM SYSTEM_RANGE(1, 400);
+
+INSERT INTO bookings (booking_id, start_date, end_date, booker_id, item_id, booking_status)
+SELECT 1000000 + x,
+       DATEADD('HOUR', x, TIMESTAMP '2024-01-01 00:00:00'),
+       DATEADD('HOUR', x + 2, TIMESTAMP '2024-01-01 00:00:00'),
+       1000000 + MOD(x * 7, 200) + 1,
+       1000000 + MOD(x, 400) + 1,
+       CASEWHEN(MOD(x, 4) = 0, 'WAITING', CASEWHEN(MOD(x, 4) = 1, 'REJECTED', 'APPROVED'))
+FROM SYSTEM_RANGE(1, 8000);
@@ -0,0 +1,9 @@
+DELETE FROM users;
+
+INSERT INTO users (email, name)
+VALUES ('owner@mail.com', 'owner');
+
+SET @ownerId = SELECT user_id FROM users WHERE email = 'owner@mail.com';
+INSERT INTO items (owner_id, item_name, description, available)
+VALUES (@ownerId, 'Дрель', 'Простая дрель', true),
+(@ownerId, 'Дрель сломанная', 'Не работает', false);
@@ -0,0 +1,22 @@
+DELETE FROM users;
+
+INSERT INTO users (email, name)
+VALUES ('owner@mail.com', 'owner'),
+('booker@mail.com', 'booker');
+
+-- 50 вещей владельца, у каждой прошедшее и будущее подтверждённые бронирования и комментарий арендатора
+SET @ownerId = SELECT user_id FROM users WHERE email = 'owner@mail.com';
+SET @bookerId = SELECT user_id FROM users WHERE email = 'booker@mail.com';
+INSERT INTO items (owner_id, item_name, description, available)
+SELECT @ownerId, 'item' || x, 'description' || x, true FROM SYSTEM_RANGE(0, 49);
+
+INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status)
+SELECT DATEADD('DAY', -2, CURRENT_TIMESTAMP), DATEADD('DAY', -1, CURRENT_TIMESTAMP), item_id, @bookerId, 'APPROVED'
+FROM items WHERE owner_id = @ownerId;
+INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status)
+SELECT DATEADD('DAY', 1, CURRENT_TIMESTAMP), DATEADD('DAY', 2, CURRENT_TIMESTAMP), item_id, @bookerId, 'APPROVED'
+FROM items WHERE owner_id = @ownerId;
+
+INSERT INTO comments (text, item_id, author_id, created)
+SELECT 'comment ' || item_name, item_id, @bookerId, DATEADD('HOUR', -1, CURRENT_TIMESTAMP)
+FROM items WHERE owner_id = @ownerId;
@@ -0,0 +1,19 @@
+DELETE FROM comments;
+DELETE FROM bookings;
+DELETE FROM items;
+DELETE FROM users;
+
+INSERT INTO users (email, name)
+VALUES ('owner@mail.com', 'owner'),
+('booker@mail.com', 'booker');
+
+SET @ownerId = SELECT user_id FROM users WHERE email = 'owner@mail.com';
+SET @bookerId = SELECT user_id FROM users WHERE email = 'booker@mail.com';
+INSERT INTO items (owner_id, item_name, description, available)
+VALUES (@ownerId, 'item', 'description', true);
+
+SET @itemId = SELECT item_id FROM items WHERE owner_id = @ownerId;
+INSERT INTO bookings (start_date, end_date, item_id, booker_id, booking_status)
+SELECT DATEADD('DAY', x, CURRENT_TIMESTAMP), DATEADD('HOUR', 1, DATEADD('DAY', x, CURRENT_TIMESTAMP)),
+       @itemId, @bookerId, 'APPROVED'
+FROM SYSTEM_RANGE(0, 19);